@@ -15,6 +15,18 @@ repositories {
     mavenCentral()
 }
 
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+dependencies {
+    testAnnotationProcessor(project(":processor"))
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
 configure<JavaPluginExtension> {
     sourceCompatibility = JavaVersion.VERSION_21
     targetCompatibility = JavaVersion.VERSION_21
@@ -66,4 +78,24 @@ tasks {
     withType<ProcessResources> {
         filteringCharset = StandardCharsets.UTF_8.name()
     }
+
+    named("check") {
+        dependsOn(jmh.classesTaskName)
+    }
+
+    // ./gradlew jmh [-Pjmh="<include regex> <jmh options>"]
+    register<JavaExec>("jmh") {
+        group = "benchmark"
+        description = "Runs the JMH benchmarks with the gc profiler."
+
+        classpath = jmh.runtimeClasspath
+        mainClass = "org.openjdk.jmh.Main"
+
+        val results = layout.buildDirectory.file("reports/jmh/results.json")
+        outputs.upToDateWhen { false }
+        doFirst { results.get().asFile.parentFile.mkdirs() }
+
+        args("-prof", "gc", "-rf", "json", "-rff", results.get().asFile.path)
+        providers.gradleProperty("jmh").orNull?.let { args(it.trim().split(Regex("\\s+"))) }
+    }
 }
@@ -0,0 +1,51 @@
+import java.nio.charset.StandardCharsets
+
+plugins {
+    `java-library`
+    `maven-publish`
+}
+
+group = "io.github.mishyy"
+version = "1.0-SNAPSHOT"
+
+base {
+    archivesName = "bencode-processor"
+}
+
+repositories {
+    mavenCentral()
+}
+
+configure<JavaPluginExtension> {
+    sourceCompatibility = JavaVersion.VERSION_21
+    targetCompatibility = JavaVersion.VERSION_21
+
+    toolchain {
+        languageVersion = JavaLanguageVersion.of(21)
+    }
+
+    withSourcesJar()
+}
+
+configure<PublishingExtension> {
+    publications {
+        register<MavenPublication>("mavenJava") {
+            artifactId = "bencode-processor"
+            from(components["java"])
+        }
+    }
+}
+
+tasks {
+    withType<JavaCompile> {
+        options.encoding = StandardCharsets.UTF_8.name()
+        options.isFork = true
+        options.release = 21
+
+        options.compilerArgs.addAll(listOf("-parameters", "-Xlint:all,-processing,-path,-fallthrough,-serial"))
+    }
+
+    withType<ProcessResources> {
+        filteringCharset = StandardCharsets.UTF_8.name()
+    }
+}
@@ -0,0 +1,627 @@
+package io.github.mishyy.bencode.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@SupportedAnnotationTypes(BencodedProcessor.BENCODED)
+public final class BencodedProcessor extends AbstractProcessor {
+
+    static final String BENCODED = "io.github.mishyy.bencode.Bencoded";
+    private static final String KEY = "io.github.mishyy.bencode.BencodeKey";
+    private static final String OPTIONAL = "io.github.mishyy.bencode.BencodeOptional";
+    private static final String BYTE_STRING = "io.github.mishyy.bencode.ByteString";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment round) {
+        for (final var annotation : annotations) {
+            for (final var element : round.getElementsAnnotatedWith(annotation)) {
+                try {
+                    generate(element);
+                } catch (final InvalidRecordException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+                } catch (final IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write codec: " + e.getMessage(), element);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void generate(final Element element) throws IOException {
+        if (element.getKind() != ElementKind.RECORD) {
+            throw new InvalidRecordException("@Bencoded only applies to records", element);
+        }
+
+        final var record = (TypeElement) element;
+        if (record.getModifiers().contains(Modifier.PRIVATE)) {
+            throw new InvalidRecordException("@Bencoded records cannot be private", record);
+        }
+        if (!record.getTypeParameters().isEmpty()) {
+            throw new InvalidRecordException("@Bencoded records cannot be generic", record);
+        }
+
+        final var components = new ArrayList<Component>();
+        for (final var component : record.getRecordComponents()) {
+            var key = component.getSimpleName().toString();
+            var optional = false;
+            for (final var mirror : component.getAnnotationMirrors()) {
+                final var name = annotationName(mirror);
+                if (name.equals(KEY)) {
+                    for (final var value : mirror.getElementValues().entrySet()) {
+                        final var string = (String) value.getValue().getValue();
+                        if (!string.isEmpty()) {
+                            key = string;
+                        }
+                    }
+                } else if (name.equals(OPTIONAL)) {
+                    optional = true;
+                }
+            }
+            components.add(new Component(components.size(), component.getSimpleName().toString(), key,
+                    key.getBytes(StandardCharsets.UTF_8), component.asType(), optional, component));
+        }
+        if (components.size() > Long.SIZE) {
+            throw new InvalidRecordException("@Bencoded records are limited to " + Long.SIZE + " components", record);
+        }
+
+        final var sorted = new ArrayList<>(components);
+        sorted.sort((a, b) -> Arrays.compareUnsigned(a.bytes(), b.bytes()));
+        for (var i = 1; i < sorted.size(); i++) {
+            if (Arrays.equals(sorted.get(i - 1).bytes(), sorted.get(i).bytes())) {
+                throw new InvalidRecordException("Duplicate key '" + sorted.get(i).key() + "'", sorted.get(i).element());
+            }
+        }
+
+        final var writer = new CodecWriter(record, components, sorted);
+        final var source = writer.write();
+        final var file = processingEnv.getFiler().createSourceFile(writer.qualifiedName, record);
+        try (final var out = file.openWriter()) {
+            out.write(source);
+        }
+    }
+
+    private static String annotationName(final AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static boolean is(final TypeMirror type, final String name) {
+        return type.getKind() == TypeKind.DECLARED
+                && ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().contentEquals(name);
+    }
+
+    private static boolean isBencoded(final TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED) {
+            return false;
+        }
+        for (final var mirror : ((DeclaredType) type).asElement().getAnnotationMirrors()) {
+            if (annotationName(mirror).equals(BENCODED)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String codecName(final TypeElement type) {
+        final var names = new ArrayList<String>();
+        Element current = type;
+        while (current.getKind().isClass() || current.getKind().isInterface()) {
+            names.addFirst(current.getSimpleName().toString());
+            current = current.getEnclosingElement();
+        }
+        final var pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        final var simple = String.join("_", names) + "Codec";
+        return pkg.isEmpty() ? simple : pkg + "." + simple;
+    }
+
+    private static String literal(final String string) {
+        final var builder = new StringBuilder("\"");
+        for (final var c : string.toCharArray()) {
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                default -> {
+                    // Unicode escapes are translated before lexing, so control characters must use octal escapes.
+                    if (c < 0x20) {
+                        builder.append(String.format("\\%03o", (int) c));
+                    } else if (c > 0x7E) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append('"').toString();
+    }
+
+    private static String bytes(final byte[] bytes) {
+        final var builder = new StringBuilder("{");
+        for (var i = 0; i < bytes.length; i++) {
+            builder.append(i == 0 ? "" : ", ").append(bytes[i]);
+        }
+        return builder.append('}').toString();
+    }
+
+    private record Component(int index, String name, String key, byte[] bytes, TypeMirror type, boolean optional,
+                             Element element) {
+    }
+
+    private static final class InvalidRecordException extends RuntimeException {
+
+        private final transient Element element;
+
+        private InvalidRecordException(final String message, final Element element) {
+            super(message);
+            this.element = element;
+        }
+
+    }
+
+    private final class CodecWriter {
+
+        private final TypeElement record;
+        private final List<Component> components;
+        private final List<Component> sorted;
+        private final String packageName;
+        private final String simpleName;
+        private final String qualifiedName;
+        private final String recordName;
+        private final Map<String, String> helpers = new LinkedHashMap<>();
+        private final StringBuilder helperSource = new StringBuilder();
+        private int variables;
+
+        private CodecWriter(final TypeElement record, final List<Component> components, final List<Component> sorted) {
+            this.record = record;
+            this.components = components;
+            this.sorted = sorted;
+            this.qualifiedName = codecName(record);
+            final var dot = qualifiedName.lastIndexOf('.');
+            this.packageName = dot < 0 ? "" : qualifiedName.substring(0, dot);
+            this.simpleName = qualifiedName.substring(dot + 1);
+            this.recordName = record.getQualifiedName().toString();
+        }
+
+        private String write() {
+            final var out = new StringBuilder();
+            if (!packageName.isEmpty()) {
+                out.append("package ").append(packageName).append(";\n\n");
+            }
+            out.append("""
+                    import io.github.mishyy.bencode.BencodeInputStream;
+                    import io.github.mishyy.bencode.BencodeOutputStream;
+                    import io.github.mishyy.bencode.type.Type;
+                    import io.github.mishyy.bencode.type.TypeDecoder;
+                    import io.github.mishyy.bencode.type.TypeEncoder;
+                    import io.github.mishyy.bencode.util.Bytes;
+
+                    import java.io.IOException;
+                    import java.io.InvalidObjectException;
+                    import java.util.Objects;
+
+                    """);
+            out.append("@javax.annotation.processing.Generated(\"").append(BencodedProcessor.class.getName()).append("\")\n");
+            out.append("public final class ").append(simpleName).append(" implements TypeEncoder<").append(recordName)
+                    .append(">, TypeDecoder<").append(recordName).append("> {\n\n");
+            out.append("    public static final ").append(simpleName).append(" INSTANCE = new ").append(simpleName).append("();\n\n");
+
+            var required = 0L;
+            out.append("    private static final byte[][] KEYS = {\n");
+            for (var i = 0; i < sorted.size(); i++) {
+                final var component = sorted.get(i);
+                out.append("            ").append(bytes(component.bytes())).append(", // ").append(literal(component.key())).append('\n');
+                if (!component.optional()) {
+                    required |= 1L << i;
+                }
+            }
+            out.append("    };\n");
+            out.append("    private static final long REQUIRED = 0x").append(Long.toHexString(required)).append("L;\n");
+            for (var i = 0; i < sorted.size(); i++) {
+                final var component = sorted.get(i);
+                final var length = Integer.toString(component.bytes().length).getBytes(StandardCharsets.US_ASCII);
+                final var prefix = Arrays.copyOf(length, length.length + 1 + component.bytes().length);
+                prefix[length.length] = ':';
+                System.arraycopy(component.bytes(), 0, prefix, length.length + 1, component.bytes().length);
+                out.append("    private static final byte[] PREFIX_").append(i).append(" = ").append(bytes(prefix)).append(";\n");
+            }
+            out.append('\n');
+            out.append("    private ").append(simpleName).append("() {\n    }\n\n");
+
+            writeEncode(out);
+            writeDecode(out);
+
+            out.append("""
+                        private static long range(final long value, final long min, final long max) {
+                            if (value < min || value > max) {
+                                throw new NumberFormatException("Integer out of range [" + min + ", " + max + "]: " + value);
+                            }
+                            return value;
+                        }
+
+                        private static InvalidObjectException missing(final long seen) {
+                            for (var i = 0; i < KEYS.length; i++) {
+                                if ((REQUIRED & ~seen & (1L << i)) != 0) {
+                                    return new InvalidObjectException("Missing key '" + new String(KEYS[i], java.nio.charset.StandardCharsets.UTF_8) + "' for %1$s");
+                                }
+                            }
+                            return new InvalidObjectException("Missing key for %1$s");
+                        }
+                    """.formatted(recordName));
+            out.append(helperSource);
+            out.append("}\n");
+            return out.toString();
+        }
+
+        private void writeEncode(final StringBuilder out) {
+            out.append("    @Override\n");
+            out.append("    public void encode(final ").append(recordName).append(" value, final BencodeOutputStream stream) throws IOException {\n");
+            out.append("        Objects.requireNonNull(value, \"value\");\n\n");
+            out.append("        stream.write(Type.Tokens.DICTIONARY);\n");
+            for (var i = 0; i < sorted.size(); i++) {
+                final var component = sorted.get(i);
+                final var variable = "v" + i;
+                out.append("        final var ").append(variable).append(" = value.").append(component.name()).append("();\n");
+                var indent = "        ";
+                if (!component.type().getKind().isPrimitive()) {
+                    if (component.optional()) {
+                        out.append("        if (").append(variable).append(" != null) {\n");
+                        indent += "    ";
+                    } else {
+                        out.append("        Objects.requireNonNull(").append(variable).append(", ").append(literal(component.name())).append(");\n");
+                    }
+                }
+                out.append(indent).append("stream.write(PREFIX_").append(i).append(");\n");
+                encodeValue(out, component.type(), variable, indent, component.element());
+                if (indent.length() > 8) {
+                    out.append("        }\n");
+                }
+            }
+            out.append("        stream.write(Type.Tokens.TERMINATOR);\n");
+            out.append("    }\n\n");
+        }
+
+        private void encodeValue(final StringBuilder out, final TypeMirror type, final String value, final String indent,
+                                 final Element element) {
+            switch (type.getKind()) {
+                case LONG, INT, SHORT, BYTE -> {
+                    writeInteger(out, value, indent);
+                    return;
+                }
+                case BOOLEAN -> {
+                    writeBoolean(out, value, indent);
+                    return;
+                }
+                case ARRAY -> {
+                    if (type.toString().equals("byte[]")) {
+                        out.append(indent).append("Type.BYTES.encode(").append(value).append(", stream);\n");
+                        return;
+                    }
+                    throw new InvalidRecordException("Unsupported component type " + type, element);
+                }
+                case DECLARED -> {
+                }
+                default -> throw new InvalidRecordException("Unsupported component type " + type, element);
+            }
+
+            if (is(type, "java.lang.Long") || is(type, "java.lang.Integer") || is(type, "java.lang.Short") || is(type, "java.lang.Byte")) {
+                writeInteger(out, value, indent);
+            } else if (is(type, "java.lang.Boolean")) {
+                writeBoolean(out, value, indent);
+            } else if (is(type, "java.lang.String")) {
+                out.append(indent).append("Type.STRING.encode(").append(value).append(", stream);\n");
+            } else if (((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+                out.append(indent).append("Type.STRING.encode(").append(value).append(".name(), stream);\n");
+            } else if (isBencoded(type)) {
+                out.append(indent).append(codecName((TypeElement) ((DeclaredType) type).asElement()))
+                        .append(".INSTANCE.encode(").append(value).append(", stream);\n");
+            } else if (isCollection(type)) {
+                final var item = "e" + variables++;
+                out.append(indent).append("stream.write(Type.Tokens.LIST);\n");
+                out.append(indent).append("for (final var ").append(item).append(" : ").append(value).append(") {\n");
+                out.append(indent).append("    Objects.requireNonNull(").append(item).append(", \"element\");\n");
+                encodeValue(out, elementType(type, 0), item, indent + "    ", element);
+                out.append(indent).append("}\n");
+                out.append(indent).append("stream.write(Type.Tokens.TERMINATOR);\n");
+            } else if (is(type, "java.util.Map")) {
+                encodeMap(out, type, value, indent, element);
+            } else {
+                out.append(indent).append("Type.UNKNOWN.encode(").append(value).append(", stream);\n");
+            }
+        }
+
+        // Mirrors the runtime binding: entries are sorted by raw key bytes and each value is written by its declared type.
+        private void encodeMap(final StringBuilder out, final TypeMirror type, final String value, final String indent,
+                               final Element element) {
+            final var keyType = elementType(type, 0);
+            final var n = variables++;
+            final var entry = "m" + n;
+            final String key;
+            if (is(keyType, "java.lang.String")) {
+                key = BYTE_STRING + ".of(" + entry + ".getKey())";
+            } else if (is(keyType, BYTE_STRING)) {
+                key = "Objects.requireNonNull(" + entry + ".getKey(), \"key\")";
+            } else if (is(keyType, "java.lang.Object")) {
+                key = "Objects.requireNonNull(" + entry + ".getKey(), \"key\") instanceof " + BYTE_STRING + " b" + n + " ? b" + n
+                        + " : " + entry + ".getKey() instanceof byte[] a" + n + " ? " + BYTE_STRING + ".wrap(a" + n + ", 0, a" + n + ".length)"
+                        + " : " + BYTE_STRING + ".of(" + entry + ".getKey().toString())";
+            } else {
+                throw new InvalidRecordException("Unsupported map key type " + keyType, element);
+            }
+
+            final var valueType = elementType(type, 1);
+            final var entries = "s" + n;
+            final var index = "i" + n;
+            final var name = "k" + n;
+            final var item = "x" + n;
+            out.append(indent).append("final var ").append(entries).append(" = new java.util.ArrayList<java.util.Map.Entry<")
+                    .append(BYTE_STRING).append(", ").append(boxed(valueType)).append(">>(").append(value).append(".size());\n");
+            out.append(indent).append("for (final var ").append(entry).append(" : ").append(value).append(".entrySet()) {\n");
+            out.append(indent).append("    ").append(entries).append(".add(java.util.Map.entry(").append(key)
+                    .append(", Objects.requireNonNull(").append(entry).append(".getValue(), \"value\")));\n");
+            out.append(indent).append("}\n");
+            out.append(indent).append(entries).append(".sort(java.util.Map.Entry.comparingByKey());\n");
+            out.append(indent).append("stream.write(Type.Tokens.DICTIONARY);\n");
+            out.append(indent).append("for (var ").append(index).append(" = 0; ").append(index).append(" < ").append(entries)
+                    .append(".size(); ").append(index).append("++) {\n");
+            out.append(indent).append("    final var ").append(name).append(" = ").append(entries).append(".get(").append(index).append(").getKey();\n");
+            out.append(indent).append("    if (").append(index).append(" > 0 && ").append(entries).append(".get(").append(index)
+                    .append(" - 1).getKey().equals(").append(name).append(")) {\n");
+            out.append(indent).append("        throw new InvalidObjectException(\"Duplicate dictionary key '\" + ").append(name).append(" + \"'\");\n");
+            out.append(indent).append("    }\n");
+            out.append(indent).append("    Bytes.writeDecimal(stream, ").append(name).append(".length());\n");
+            out.append(indent).append("    stream.write(Type.Tokens.SEPARATOR);\n");
+            out.append(indent).append("    ").append(name).append(".writeTo(stream);\n");
+            out.append(indent).append("    final var ").append(item).append(" = ").append(entries).append(".get(").append(index).append(").getValue();\n");
+            encodeValue(out, valueType, item, indent + "    ", element);
+            out.append(indent).append("}\n");
+            out.append(indent).append("stream.write(Type.Tokens.TERMINATOR);\n");
+        }
+
+        private static void writeInteger(final StringBuilder out, final String value, final String indent) {
+            out.append(indent).append("stream.write(Type.Tokens.NUMBER);\n");
+            out.append(indent).append("Bytes.writeDecimal(stream, ").append(value).append(");\n");
+            out.append(indent).append("stream.write(Type.Tokens.TERMINATOR);\n");
+        }
+
+        private static void writeBoolean(final StringBuilder out, final String value, final String indent) {
+            out.append(indent).append("stream.write(Type.Tokens.NUMBER);\n");
+            out.append(indent).append("stream.write(").append(value).append(" ? '1' : '0');\n");
+            out.append(indent).append("stream.write(Type.Tokens.TERMINATOR);\n");
+        }
+
+        private void writeDecode(final StringBuilder out) {
+            out.append("    @Override\n");
+            out.append("    public ").append(recordName).append(" decode(final BencodeInputStream stream) throws IOException {\n");
+            out.append("        var token = stream.read();\n");
+            out.append("        Bytes.validateToken(stream, Type.DICTIONARY, token);\n");
+            for (var i = 0; i < sorted.size(); i++) {
+                final var type = sorted.get(i).type();
+                out.append("        ").append(type).append(" c").append(i).append(" = ")
+                        .append(switch (type.getKind()) {
+                            case BOOLEAN -> "false";
+                            case LONG, INT, SHORT, BYTE -> "0";
+                            default -> "null";
+                        }).append(";\n");
+            }
+            out.append("        var seen = 0L;\n");
+            out.append("        stream.enterContainer();\n");
+            out.append("        try {\n");
+            out.append("            while ((token = stream.read()) != Type.Tokens.TERMINATOR) {\n");
+            out.append("                Bytes.checkEOF(token);\n");
+            out.append("                stream.unread(token);\n");
+            out.append("                switch (stream.readKey(KEYS)) {\n");
+            for (var i = 0; i < sorted.size(); i++) {
+                final var component = sorted.get(i);
+                out.append("                    case ").append(i).append(" -> {\n");
+                out.append("                        c").append(i).append(" = ").append(decodeValue(component.type(), component.element())).append(";\n");
+                out.append("                        seen |= 1L << ").append(i).append(";\n");
+                out.append("                    }\n");
+            }
+            out.append("                    default -> stream.skipValue();\n");
+            out.append("                }\n");
+            out.append("            }\n");
+            out.append("        } finally {\n");
+            out.append("            stream.exitContainer();\n");
+            out.append("        }\n");
+            out.append("        if ((seen & REQUIRED) != REQUIRED) {\n");
+            out.append("            throw missing(seen);\n");
+            out.append("        }\n");
+            out.append("        return new ").append(recordName).append('(');
+            for (var i = 0; i < components.size(); i++) {
+                out.append(i == 0 ? "" : ", ").append('c').append(sorted.indexOf(components.get(i)));
+            }
+            out.append(");\n");
+            out.append("    }\n\n");
+        }
+
+        private String decodeValue(final TypeMirror type, final Element element) {
+            switch (type.getKind()) {
+                case LONG -> {
+                    return "stream.readLong()";
+                }
+                case INT -> {
+                    return "(int) range(stream.readLong(), Integer.MIN_VALUE, Integer.MAX_VALUE)";
+                }
+                case SHORT -> {
+                    return "(short) range(stream.readLong(), Short.MIN_VALUE, Short.MAX_VALUE)";
+                }
+                case BYTE -> {
+                    return "(byte) range(stream.readLong(), Byte.MIN_VALUE, Byte.MAX_VALUE)";
+                }
+                case BOOLEAN -> {
+                    return "range(stream.readLong(), 0, 1) == 1";
+                }
+                case ARRAY -> {
+                    if (type.toString().equals("byte[]")) {
+                        return "stream.readBytes()";
+                    }
+                    throw new InvalidRecordException("Unsupported component type " + type, element);
+                }
+                case WILDCARD -> {
+                    final var bound = ((WildcardType) type).getExtendsBound();
+                    return bound == null ? "Type.UNKNOWN.decode(stream)" : decodeValue(bound, element);
+                }
+                case DECLARED -> {
+                }
+                default -> throw new InvalidRecordException("Unsupported component type " + type, element);
+            }
+
+            if (is(type, "java.lang.Long")) {
+                return "stream.readLong()";
+            } else if (is(type, "java.lang.Integer")) {
+                return decodeValue(processingEnv.getTypeUtils().getPrimitiveType(TypeKind.INT), element);
+            } else if (is(type, "java.lang.Short")) {
+                return decodeValue(processingEnv.getTypeUtils().getPrimitiveType(TypeKind.SHORT), element);
+            } else if (is(type, "java.lang.Byte")) {
+                return decodeValue(processingEnv.getTypeUtils().getPrimitiveType(TypeKind.BYTE), element);
+            } else if (is(type, "java.lang.Boolean")) {
+                return decodeValue(processingEnv.getTypeUtils().getPrimitiveType(TypeKind.BOOLEAN), element);
+            } else if (is(type, "java.lang.String")) {
+                return "stream.readString()";
+            } else if (is(type, "java.lang.Number")) {
+                return "stream.readNumber()";
+            } else if (is(type, "java.lang.Object")) {
+                return "Type.UNKNOWN.decode(stream)";
+            } else if (is(type, BYTE_STRING)) {
+                return helper(type, "byteString", """
+                                final var bytes = stream.readBytes();
+                                return %s.wrap(bytes, 0, bytes.length);
+                        """.formatted(BYTE_STRING));
+            } else if (is(type, "java.math.BigInteger")) {
+                return helper(type, "bigInteger", """
+                                final var number = stream.readNumber();
+                                return number instanceof java.math.BigInteger value ? value : java.math.BigInteger.valueOf(number.longValue());
+                        """);
+            } else if (((DeclaredType) type).asElement().getKind() == ElementKind.ENUM) {
+                return helper(type, "constant", """
+                                final var name = stream.readString();
+                                try {
+                                    return %s.valueOf(name);
+                                } catch (final IllegalArgumentException e) {
+                                    throw new InvalidObjectException("Unknown %s constant '" + name + "'");
+                                }
+                        """.formatted(type, ((DeclaredType) type).asElement().getSimpleName()));
+            } else if (isBencoded(type)) {
+                return codecName((TypeElement) ((DeclaredType) type).asElement()) + ".INSTANCE.decode(stream)";
+            } else if (isCollection(type)) {
+                final var elementType = elementType(type, 0);
+                final var set = is(type, "java.util.Set");
+                final var body = """
+                                var token = stream.read();
+                                Bytes.validateToken(stream, Type.LIST, token);
+                                final var list = new java.util.%s<%s>();
+                                stream.enterContainer();
+                                try {
+                                    while ((token = stream.read()) != Type.Tokens.TERMINATOR) {
+                                        Bytes.checkEOF(token);
+                                        stream.unread(token);
+                                        stream.limits().checkContainerSize(list.size() + 1L);
+                                        list.add(%s);
+                                    }
+                                } finally {
+                                    stream.exitContainer();
+                                }
+                                return list;
+                        """.formatted(set ? "LinkedHashSet" : "ArrayList", boxed(elementType), decodeValue(elementType, element));
+                return helper(type, set ? "set" : "list", body);
+            } else if (is(type, "java.util.Map")) {
+                final var keyType = elementType(type, 0);
+                final String key;
+                if (is(keyType, "java.lang.String") || is(keyType, "java.lang.Object")) {
+                    key = "stream.readString()";
+                } else if (is(keyType, BYTE_STRING)) {
+                    key = decodeValue(keyType, element);
+                } else {
+                    throw new InvalidRecordException("Unsupported map key type " + keyType, element);
+                }
+                final var valueType = elementType(type, 1);
+                final var body = """
+                                var token = stream.read();
+                                Bytes.validateToken(stream, Type.DICTIONARY, token);
+                                final var map = new java.util.LinkedHashMap<%s, %s>();
+                                stream.enterContainer();
+                                try {
+                                    while ((token = stream.read()) != Type.Tokens.TERMINATOR) {
+                                        Bytes.checkEOF(token);
+                                        stream.unread(token);
+                                        stream.limits().checkContainerSize(map.size() + 1L);
+                                        final var key = %s;
+                                        map.put(key, %s);
+                                    }
+                                } finally {
+                                    stream.exitContainer();
+                                }
+                                return map;
+                        """.formatted(boxed(keyType), boxed(valueType), key, decodeValue(valueType, element));
+                return helper(type, "map", body);
+            }
+            throw new InvalidRecordException("Unsupported component type " + type, element);
+        }
+
+        private String helper(final TypeMirror type, final String prefix, final String body) {
+            final var signature = type.toString();
+            var name = helpers.get(signature);
+            if (name == null) {
+                name = prefix + helpers.size();
+                helpers.put(signature, name);
+                helperSource.append('\n')
+                        .append("    private static ").append(signature).append(' ').append(name)
+                        .append("(final BencodeInputStream stream) throws IOException {\n")
+                        .append(body)
+                        .append("    }\n");
+            }
+            return name + "(stream)";
+        }
+
+        private boolean isCollection(final TypeMirror type) {
+            return is(type, "java.util.List") || is(type, "java.util.Collection") || is(type, "java.util.Set")
+                    || is(type, "java.lang.Iterable");
+        }
+
+        private TypeMirror elementType(final TypeMirror type, final int index) {
+            final var arguments = ((DeclaredType) type).getTypeArguments();
+            if (arguments.isEmpty()) {
+                return processingEnv.getElementUtils().getTypeElement("java.lang.Object").asType();
+            }
+            final var argument = arguments.get(index);
+            if (argument instanceof WildcardType wildcard) {
+                return wildcard.getExtendsBound() != null
+                        ? wildcard.getExtendsBound()
+                        : processingEnv.getElementUtils().getTypeElement("java.lang.Object").asType();
+            }
+            return argument;
+        }
+
+        private String boxed(final TypeMirror type) {
+            return type.getKind().isPrimitive()
+                    ? processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type).getQualifiedName().toString()
+                    : type.toString();
+        }
+
+    }
+
+}
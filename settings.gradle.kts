@@ -1,2 +1,3 @@
 rootProject.name = "bencode"
 
+include("processor")
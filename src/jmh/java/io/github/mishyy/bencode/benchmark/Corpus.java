@@ -0,0 +1,142 @@
+package io.github.mishyy.bencode.benchmark;
+
+import io.github.mishyy.bencode.Bencode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+public enum Corpus {
+
+    SINGLE_FILE_TORRENT(Corpus::singleFileTorrent),
+    MULTI_FILE_TORRENT(Corpus::multiFileTorrent),
+    ANNOUNCE_COMPACT(Corpus::compactAnnounce),
+    ANNOUNCE_DICTIONARY(Corpus::dictionaryAnnounce),
+    SCRAPE(Corpus::scrape),
+    KRPC_PING(Corpus::ping),
+    KRPC_GET_PEERS(Corpus::getPeers),
+    NESTED(Corpus::nested);
+
+    private static final long SEED = 0x62656e636f6465L;
+
+    private final Function<Random, Map<String, Object>> generator;
+
+    Corpus(final Function<Random, Map<String, Object>> generator) {
+        this.generator = generator;
+    }
+
+    public Map<String, Object> value() {
+        return generator.apply(new Random(SEED + ordinal()));
+    }
+
+    public byte[] bytes() {
+        return Bencode.get().encode(value());
+    }
+
+    private static byte[] random(final Random random, final int length) {
+        final var bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static Map<String, Object> torrent(final Map<String, Object> info) {
+        final var torrent = new HashMap<String, Object>();
+        torrent.put("announce", "http://tracker.example.org:6969/announce");
+        torrent.put("announce-list", List.of(
+                List.of("http://tracker.example.org:6969/announce"),
+                List.of("udp://tracker.example.net:1337/announce", "udp://open.example.com:80/announce")));
+        torrent.put("comment", "Generated benchmark torrent");
+        torrent.put("created by", "bencode-jmh");
+        torrent.put("creation date", 1_700_000_000L);
+        torrent.put("info", info);
+        return torrent;
+    }
+
+    private static Map<String, Object> singleFileTorrent(final Random random) {
+        final var length = 4L << 30;
+        final var pieceLength = 256 << 10;
+
+        final var info = new HashMap<String, Object>();
+        info.put("length", length);
+        info.put("name", "distribution-24.04-desktop-amd64.iso");
+        info.put("piece length", pieceLength);
+        info.put("pieces", random(random, (int) (length / pieceLength) * 20));
+        return torrent(info);
+    }
+
+    private static Map<String, Object> multiFileTorrent(final Random random) {
+        final var pieceLength = 1 << 20;
+        final var files = new ArrayList<Map<String, Object>>(10_000);
+        var total = 0L;
+        for (var i = 0; i < 10_000; i++) {
+            final var length = 1_024L + random.nextInt(4 << 20);
+            total += length;
+            files.add(Map.of("length", length, "path", List.of("disc" + i / 1_000, "track" + i % 1_000 + ".flac")));
+        }
+
+        final var info = new HashMap<String, Object>();
+        info.put("files", files);
+        info.put("name", "archive");
+        info.put("piece length", pieceLength);
+        info.put("pieces", random(random, (int) ((total + pieceLength - 1) / pieceLength) * 20));
+        return torrent(info);
+    }
+
+    private static Map<String, Object> compactAnnounce(final Random random) {
+        return Map.of(
+                "complete", 1_250,
+                "incomplete", 310,
+                "interval", 1_800,
+                "min interval", 900,
+                "peers", random(random, 200 * 6),
+                "peers6", random(random, 50 * 18));
+    }
+
+    private static Map<String, Object> dictionaryAnnounce(final Random random) {
+        final var peers = new ArrayList<Map<String, Object>>(200);
+        for (var i = 0; i < 200; i++) {
+            final var ip = (10 + random.nextInt(200)) + "." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256);
+            peers.add(Map.of("ip", ip, "peer id", random(random, 20), "port", 1_024 + random.nextInt(64_000)));
+        }
+        return Map.of("complete", 1_250, "incomplete", 310, "interval", 1_800, "peers", peers);
+    }
+
+    private static Map<String, Object> scrape(final Random random) {
+        final var files = new HashMap<byte[], Object>();
+        for (var i = 0; i < 1_000; i++) {
+            files.put(random(random, 20), Map.of(
+                    "complete", random.nextInt(10_000),
+                    "downloaded", random.nextInt(1_000_000),
+                    "incomplete", random.nextInt(1_000)));
+        }
+        return Map.of("files", files);
+    }
+
+    private static Map<String, Object> ping(final Random random) {
+        return Map.of("t", "aa", "y", "q", "q", "ping", "a", Map.of("id", random(random, 20)));
+    }
+
+    private static Map<String, Object> getPeers(final Random random) {
+        final var values = new ArrayList<byte[]>(50);
+        for (var i = 0; i < 50; i++) {
+            values.add(random(random, 6));
+        }
+        return Map.of("t", "aa", "y", "r", "r", Map.of(
+                "id", random(random, 20),
+                "nodes", random(random, 8 * 26),
+                "token", random(random, 8),
+                "values", values));
+    }
+
+    private static Map<String, Object> nested(final Random random) {
+        Object value = random.nextLong();
+        for (var depth = 0; depth < 256; depth++) {
+            value = depth % 2 == 0 ? List.of(value, "level" + depth) : Map.of("child", value, "depth", depth);
+        }
+        return Map.of("root", value);
+    }
+
+}
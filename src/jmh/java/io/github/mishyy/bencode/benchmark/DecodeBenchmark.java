@@ -0,0 +1,61 @@
+package io.github.mishyy.bencode.benchmark;
+
+import io.github.mishyy.bencode.Bencode;
+import io.github.mishyy.bencode.BencodeDecoder;
+import io.github.mishyy.bencode.BencodeInputStream;
+import io.github.mishyy.bencode.type.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecodeBenchmark {
+
+    @Param
+    private Corpus corpus;
+
+    private byte[] bytes;
+    private BencodeDecoder decoder;
+
+    @Setup
+    public void setup() {
+        bytes = corpus.bytes();
+        decoder = new BencodeDecoder();
+    }
+
+    @Benchmark
+    public Map<?, ?> bencode() {
+        return Bencode.get().decodeDictionary(bytes);
+    }
+
+    @Benchmark
+    public Map<?, ?> inputStream() throws IOException {
+        try (final var in = new BencodeInputStream(new ByteArrayInputStream(bytes))) {
+            return Type.DICTIONARY.decode(in);
+        }
+    }
+
+    @Benchmark
+    public Object decoder() {
+        return decoder.decode(bytes);
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.github.mishyy.bencode.benchmark;
+
+import io.github.mishyy.bencode.Bencode;
+import io.github.mishyy.bencode.BencodeEncoder;
+import io.github.mishyy.bencode.BencodeOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodeBenchmark {
+
+    @Param
+    private Corpus corpus;
+
+    private Map<String, Object> value;
+    private BencodeEncoder encoder;
+
+    @Setup
+    public void setup() {
+        value = corpus.value();
+        encoder = new BencodeEncoder();
+    }
+
+    @Benchmark
+    public byte[] bencode() {
+        return Bencode.get().encode(value);
+    }
+
+    @Benchmark
+    public void outputStream(final Blackhole blackhole) throws IOException {
+        try (final var out = new BencodeOutputStream(OutputStream.nullOutputStream())) {
+            out.writeDictionary(value);
+            blackhole.consume(out);
+        }
+    }
+
+    @Benchmark
+    public byte[] encoder() {
+        return encoder.encode(value);
+    }
+
+}
@@ -2,26 +2,67 @@ package io.github.mishyy.bencode;
 
 import io.github.mishyy.bencode.type.Type;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
 public final class Bencode {
 
+    // The pool keeps one encoder and decoder per batch task, so every chunk of a batch finds warm scratch state.
+    private static final int BATCH_TASKS = Runtime.getRuntime().availableProcessors() * 4;
     private static final Bencode INSTANCE = new Bencode();
 
+    private final KeyCache keyCache = new KeyCache();
+    private final BencodePool pool = new BencodePool(BATCH_TASKS, keyCache);
+    private volatile BencodeMetrics metrics;
+    private volatile DecodeLimits limits = DecodeLimits.DEFAULT;
+
     public static Bencode get() {
         return INSTANCE;
     }
 
+    public KeyCache keyCache() {
+        return keyCache;
+    }
+
+    BencodePool pool() {
+        return pool;
+    }
+
+    public DecodeLimits limits() {
+        return limits;
+    }
+
+    public void limits(final DecodeLimits limits) {
+        this.limits = Objects.requireNonNull(limits, "limits");
+    }
+
+    public BencodeMetrics metrics() {
+        return metrics;
+    }
+
+    // Pass null to stop collecting; JFR events are controlled by the recording settings alone.
+    public void metrics(final BencodeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     public Type<?> type(final byte[] bytes) {
         Objects.requireNonNull(bytes, "bytes");
 
-        try (final var in = new BencodeInputStream(new ByteArrayInputStream(bytes))) {
-            return in.nextType();
+        try {
+            return new BencodeCursor(bytes).limits(limits).nextType();
         } catch (final Throwable t) {
-            throw new BencodeException("Exception thrown during type detection", t);
+            throw BencodeException.wrap("Exception thrown during type detection", t);
         }
     }
 
@@ -41,25 +82,184 @@ public final class Bencode {
         return decode(Type.DICTIONARY, bytes);
     }
 
-    @SuppressWarnings("unchecked")
+    public Map<?, ?> decodeDictionary(final byte[] bytes, final String key, final MessageDigest... digests) {
+        Objects.requireNonNull(bytes, "bytes");
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(digests, "digests");
+
+        final var probe = BencodeProbe.decode(metrics, "decodeDictionary");
+        try {
+            final var value = new BencodeCursor(bytes).keyCache(keyCache).limits(limits).readDictionary(key, digests);
+            if (probe != null) {
+                probe.success(value, bytes.length);
+            }
+            return value;
+        } catch (final Throwable t) {
+            if (probe != null) {
+                probe.failure(t);
+            }
+            throw BencodeException.wrap("Exception thrown during decoding", t);
+        }
+    }
+
     public <T> T decode(final Type<T> type, final byte[] bytes) {
         Objects.requireNonNull(type, "type");
         Objects.requireNonNull(bytes, "bytes");
+        return decode(type, new BencodeCursor(bytes).keyCache(keyCache).limits(limits), bytes.length);
+    }
+
+    public <T> T decodeObject(final Class<T> type, final byte[] bytes) {
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(bytes, "bytes");
+
+        final var probe = BencodeProbe.decode(metrics, "decodeObject");
+        try {
+            final var value = BencodeBinding.decode(type, new BencodeCursor(bytes).numberMode(NumberMode.BIG_INTEGER).limits(limits));
+            if (probe != null) {
+                probe.success(value, bytes.length);
+            }
+            return value;
+        } catch (final Throwable t) {
+            if (probe != null) {
+                probe.failure(t);
+            }
+            throw BencodeException.wrap("Exception thrown during decoding", t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T decode(final Type<T> type, final BencodeCursor cursor, final long length) {
         if (type == Type.UNKNOWN) {
             throw new IllegalArgumentException("type cannot be UNKNOWN");
         }
 
-        try (final var in = new BencodeInputStream(new ByteArrayInputStream(bytes))) {
-            if (type == Type.NUMBER) {
-                return (T) in.readNumber();
+        final var probe = BencodeProbe.decode(metrics, "decode");
+        try {
+            final Object value;
+            if (type == Type.BYTES) {
+                value = cursor.readBytes();
+            } else if (type == Type.NUMBER) {
+                value = cursor.readNumber();
             } else if (type == Type.LIST) {
-                return (T) in.readList();
+                value = cursor.readList();
             } else if (type == Type.DICTIONARY) {
-                return (T) in.readDictionary();
+                value = cursor.readDictionary();
+            } else {
+                value = cursor.readString();
+            }
+            if (probe != null) {
+                probe.success(value, length);
+            }
+            return (T) value;
+        } catch (final Throwable t) {
+            if (probe != null) {
+                probe.failure(t);
+            }
+            throw BencodeException.wrap("Exception thrown during decoding", t);
+        }
+    }
+
+    public Object decodeMapped(final Path path) {
+        Objects.requireNonNull(path, "path");
+
+        final var probe = BencodeProbe.decode(metrics, "decodeMapped");
+        try (final var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final var size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large to map: " + size + " bytes");
+            }
+
+            final var buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            final var value = new BencodeCursor(buffer).stringMode(BencodeCursor.StringMode.BUFFER).keyCache(keyCache).limits(limits).readValue();
+            if (probe != null) {
+                probe.success(value, size);
+            }
+            return value;
+        } catch (final Throwable t) {
+            if (probe != null) {
+                probe.failure(t);
+            }
+            throw BencodeException.wrap("Exception thrown during decoding", t);
+        }
+    }
+
+    public void visit(final byte[] bytes, final BencodeVisitor visitor) {
+        Objects.requireNonNull(bytes, "bytes");
+        Objects.requireNonNull(visitor, "visitor");
+
+        try {
+            new BencodeCursor(bytes).limits(limits).visit(visitor);
+        } catch (final Throwable t) {
+            throw BencodeException.wrap("Exception thrown during visiting", t);
+        }
+    }
+
+    public List<Object> select(final BencodePath path, final byte[] bytes) {
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(bytes, "bytes");
+
+        final var probe = BencodeProbe.decode(metrics, "select");
+        try {
+            final var values = path.select(new BencodeCursor(bytes).keyCache(keyCache).limits(limits));
+            if (probe != null) {
+                probe.success(values, bytes.length);
+            }
+            return values;
+        } catch (final Throwable t) {
+            if (probe != null) {
+                probe.failure(t);
+            }
+            throw BencodeException.wrap("Exception thrown during selection", t);
+        }
+    }
+
+    public Map<String, Object> project(final BencodePath path, final byte[] bytes) {
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(bytes, "bytes");
+
+        final var probe = BencodeProbe.decode(metrics, "project");
+        try {
+            final var value = path.project(new BencodeCursor(bytes).keyCache(keyCache).limits(limits));
+            if (probe != null) {
+                probe.success(value, bytes.length);
             }
-            return (T) in.readString();
+            return value;
+        } catch (final Throwable t) {
+            if (probe != null) {
+                probe.failure(t);
+            }
+            throw BencodeException.wrap("Exception thrown during decoding", t);
+        }
+    }
+
+    public ValidationResult validate(final byte[] bytes) {
+        return validate(bytes, ValidationMode.WELL_FORMED);
+    }
+
+    public ValidationResult validate(final byte[] bytes, final ValidationMode mode) {
+        Objects.requireNonNull(bytes, "bytes");
+        Objects.requireNonNull(mode, "mode");
+
+        try {
+            return BencodeValidator.validate(bytes, mode, limits);
+        } catch (final Throwable t) {
+            throw BencodeException.wrap("Exception thrown during validation", t);
+        }
+    }
+
+    public ValidationResult validate(final InputStream in) {
+        return validate(in, ValidationMode.WELL_FORMED);
+    }
+
+    // Reads ahead of the value, and to the end of the stream in canonical mode.
+    public ValidationResult validate(final InputStream in, final ValidationMode mode) {
+        Objects.requireNonNull(in, "in");
+        Objects.requireNonNull(mode, "mode");
+
+        try {
+            return BencodeValidator.validate(in, mode, limits);
         } catch (final Throwable t) {
-            throw new BencodeException("Exception thrown during decoding", t);
+            throw BencodeException.wrap("Exception thrown during validation", t);
         }
     }
 
@@ -83,21 +283,135 @@ public final class Bencode {
         return encode(Type.DICTIONARY, map);
     }
 
-    private byte[] encode(final Type<?> type, final Object object) {
-        try (final var baos = new ByteArrayOutputStream()) {
-            try (final var out = new BencodeOutputStream(baos)) {
-                if (type == Type.NUMBER) {
-                    out.writeNumber((Number) object);
-                } else if (type == Type.LIST) {
-                    out.writeList((Iterable<?>) object);
-                } else if (type == Type.DICTIONARY) {
-                    out.writeDictionary((Map<?, ?>) object);
-                } else {
-                    out.writeString(object.toString());
+    public byte[] encode(final Object object) {
+        Objects.requireNonNull(object, "object");
+        return encode(Type.UNKNOWN, object);
+    }
+
+    // -1 when the value holds an iterable that is not a Collection, as those can only be walked while encoding.
+    public long encodedSize(final Object object) {
+        Objects.requireNonNull(object, "object");
+
+        try {
+            return Type.UNKNOWN.encodedSize(object);
+        } catch (final Throwable t) {
+            throw new BencodeException("Exception thrown during sizing", t);
+        }
+    }
+
+    public List<BencodeResult<Object>> decodeAll(final List<byte[]> items) {
+        return decodeAll(items, ForkJoinPool.commonPool());
+    }
+
+    public List<BencodeResult<Object>> decodeAll(final List<byte[]> items, final Executor executor) {
+        Objects.requireNonNull(items, "items");
+        Objects.requireNonNull(executor, "executor");
+
+        final var results = Bencode.<Object>results(items.size());
+        runChunked(items.size(), executor, (from, to) -> {
+            final var decoder = pool.acquireDecoder().limits(limits);
+            try {
+                for (var i = from; i < to; i++) {
+                    results[i] = attempt(decoder::decode, items.get(i), true);
                 }
+            } finally {
+                pool.release(decoder);
             }
-            return baos.toByteArray();
+        });
+        return List.of(results);
+    }
+
+    public List<BencodeResult<byte[]>> encodeAll(final List<?> values) {
+        return encodeAll(values, ForkJoinPool.commonPool());
+    }
+
+    public List<BencodeResult<byte[]>> encodeAll(final List<?> values, final Executor executor) {
+        Objects.requireNonNull(values, "values");
+        Objects.requireNonNull(executor, "executor");
+
+        final var results = Bencode.<byte[]>results(values.size());
+        runChunked(values.size(), executor, (from, to) -> {
+            final var encoder = pool.acquireEncoder();
+            try {
+                for (var i = from; i < to; i++) {
+                    results[i] = attempt(encoder::encode, values.get(i), false);
+                }
+            } finally {
+                pool.release(encoder);
+            }
+        });
+        return List.of(results);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> BencodeResult<T>[] results(final int size) {
+        return (BencodeResult<T>[]) new BencodeResult<?>[size];
+    }
+
+    private <I, R> BencodeResult<R> attempt(final Function<I, R> function, final I item, final boolean decode) {
+        final var probe = decode ? BencodeProbe.decode(metrics, "decodeAll") : BencodeProbe.encode(metrics, "encodeAll");
+        try {
+            final var value = function.apply(item);
+            if (probe != null) {
+                // The encoded side of the pair is always the byte array.
+                probe.success(decode ? value : item, ((byte[]) (decode ? item : value)).length);
+            }
+            return BencodeResult.success(value);
+        } catch (final BencodeException e) {
+            if (probe != null) {
+                probe.failure(e.getCause() != null ? e.getCause() : e);
+            }
+            return BencodeResult.failure(e);
+        } catch (final RuntimeException e) {
+            if (probe != null) {
+                probe.failure(e);
+            }
+            return BencodeResult.failure(new BencodeException("Exception thrown during " + (decode ? "decoding" : "encoding"), e));
+        }
+    }
+
+    // Splits [0, size) into contiguous chunks so each task reuses one pooled worker for its whole range.
+    private static void runChunked(final int size, final Executor executor, final Chunk chunk) {
+        final var tasks = Math.min(size, BATCH_TASKS);
+        final var futures = new CompletableFuture<?>[tasks];
+        for (var task = 0; task < tasks; task++) {
+            final var from = (int) ((long) size * task / tasks);
+            final var to = (int) ((long) size * (task + 1) / tasks);
+            futures[task] = CompletableFuture.runAsync(() -> chunk.run(from, to), executor);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+
+    @FunctionalInterface
+    private interface Chunk {
+
+        void run(int from, int to);
+
+    }
+
+    private byte[] encode(final Type<?> type, final Object object) {
+        final var probe = BencodeProbe.encode(metrics, "encode");
+        try {
+            final byte[] bytes;
+            if (type == Type.NUMBER) {
+                bytes = Type.NUMBER.encode((Number) object);
+            } else if (type == Type.LIST) {
+                bytes = Type.LIST.encode((Iterable<?>) object);
+            } else if (type == Type.DICTIONARY) {
+                bytes = Type.DICTIONARY.encode((Map<?, ?>) object);
+            } else if (type == Type.UNKNOWN) {
+                bytes = Type.UNKNOWN.encode(object);
+            } else {
+                bytes = Type.STRING.encode(object.toString());
+            }
+            if (probe != null) {
+                probe.success(object, bytes.length);
+            }
+            return bytes;
         } catch (final Throwable t) {
+            if (probe != null) {
+                probe.failure(t);
+            }
             throw new BencodeException("Exception thrown during encoding", t);
         }
     }
@@ -0,0 +1,506 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import io.github.mishyy.bencode.util.Bytes;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.WildcardType;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+
+public final class BencodeBinding {
+
+    private static final ClassValue<Binding> BINDINGS = new ClassValue<>() {
+        @Override
+        protected Binding computeValue(final Class<?> type) {
+            return Binding.of(type);
+        }
+    };
+
+    private static final ClassValue<Boolean> BOUND = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            if (type.isRecord()) {
+                return true;
+            }
+            for (var c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (final var field : c.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(BencodeKey.class)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    };
+
+    private BencodeBinding() {
+    }
+
+    public static boolean isBound(final Class<?> type) {
+        return BOUND.get(Objects.requireNonNull(type, "type"));
+    }
+
+    public static <T> T decode(final Class<T> type, final BencodeCursor cursor) throws IOException {
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(cursor, "cursor");
+
+        if (!isBound(type)) {
+            throw new IllegalArgumentException(type.getName() + " is neither a record nor has @BencodeKey fields");
+        }
+        return type.cast(BINDINGS.get(type).decode(cursor));
+    }
+
+    public static void encode(final Object object, final BencodeOutputStream stream) throws IOException {
+        Objects.requireNonNull(object, "object");
+        Objects.requireNonNull(stream, "stream");
+
+        if (!isBound(object.getClass())) {
+            throw new IllegalArgumentException(object.getClass().getName() + " is neither a record nor has @BencodeKey fields");
+        }
+        BINDINGS.get(object.getClass()).encode(object, stream);
+    }
+
+    public static long encodedSize(final Object object) throws IOException {
+        Objects.requireNonNull(object, "object");
+
+        if (!isBound(object.getClass())) {
+            throw new IllegalArgumentException(object.getClass().getName() + " is neither a record nor has @BencodeKey fields");
+        }
+        return BINDINGS.get(object.getClass()).encodedSize(object);
+    }
+
+    private static Decoder decoder(final java.lang.reflect.Type type) {
+        if (type instanceof WildcardType wildcard) {
+            return decoder(wildcard.getUpperBounds()[0]);
+        }
+        if (type instanceof ParameterizedType parameterized) {
+            final var raw = (Class<?>) parameterized.getRawType();
+            final var arguments = parameterized.getActualTypeArguments();
+            if (Map.class.isAssignableFrom(raw)) {
+                return map(raw, arguments[0], decoder(arguments[1]));
+            }
+            if (Iterable.class.isAssignableFrom(raw)) {
+                return list(raw, decoder(arguments[0]));
+            }
+            return decoder(raw);
+        }
+        if (type instanceof GenericArrayType || !(type instanceof Class<?> raw)) {
+            return BencodeCursor::readValue;
+        }
+
+        if (raw == String.class) {
+            return BencodeCursor::readString;
+        } else if (raw == byte[].class) {
+            return BencodeCursor::readBytes;
+        } else if (raw == ByteString.class) {
+            return BencodeCursor::readByteString;
+        } else if (raw == long.class || raw == Long.class) {
+            return BencodeCursor::readLong;
+        } else if (raw == int.class || raw == Integer.class) {
+            return cursor -> (int) range(cursor.readLong(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+        } else if (raw == short.class || raw == Short.class) {
+            return cursor -> (short) range(cursor.readLong(), Short.MIN_VALUE, Short.MAX_VALUE);
+        } else if (raw == byte.class || raw == Byte.class) {
+            return cursor -> (byte) range(cursor.readLong(), Byte.MIN_VALUE, Byte.MAX_VALUE);
+        } else if (raw == boolean.class || raw == Boolean.class) {
+            return cursor -> range(cursor.readLong(), 0, 1) == 1;
+        } else if (raw == BigInteger.class) {
+            return cursor -> {
+                final var value = cursor.readNumber();
+                return value instanceof Long l ? BigInteger.valueOf(l) : value;
+            };
+        } else if (raw == Number.class || raw == Object.class) {
+            return raw == Number.class ? BencodeCursor::readNumber : BencodeCursor::readValue;
+        } else if (raw.isEnum()) {
+            return cursor -> enumValue(raw, cursor.readString());
+        } else if (Map.class.isAssignableFrom(raw)) {
+            return map(raw, String.class, BencodeCursor::readValue);
+        } else if (Iterable.class.isAssignableFrom(raw)) {
+            return list(raw, BencodeCursor::readValue);
+        } else if (isBound(raw)) {
+            // Resolved on first use so that self-referencing types do not recurse while their binding is built.
+            return cursor -> BINDINGS.get(raw).decode(cursor);
+        }
+        throw new IllegalArgumentException("Unsupported property type " + type.getTypeName());
+    }
+
+    private static Decoder list(final Class<?> raw, final Decoder element) {
+        if (!raw.isAssignableFrom(ArrayList.class) && !raw.isAssignableFrom(LinkedHashSet.class)) {
+            throw new IllegalArgumentException("Unsupported collection type " + raw.getName());
+        }
+
+        final var set = !raw.isAssignableFrom(ArrayList.class);
+        return cursor -> {
+            cursor.expect(Type.Tokens.LIST);
+            cursor.enterContainer();
+            try {
+                final Collection<Object> collection = set ? new LinkedHashSet<>() : new ArrayList<>();
+                int token;
+                while ((token = cursor.peek()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(token);
+                    cursor.limits().checkContainerSize(collection.size() + 1L);
+                    collection.add(element.read(cursor));
+                }
+                cursor.expect(Type.Tokens.TERMINATOR);
+                return collection;
+            } finally {
+                cursor.exitContainer();
+            }
+        };
+    }
+
+    private static Decoder map(final Class<?> raw, final java.lang.reflect.Type keyType, final Decoder value) {
+        if (!raw.isAssignableFrom(LinkedHashMap.class)) {
+            throw new IllegalArgumentException("Unsupported map type " + raw.getName());
+        }
+        if (keyType != String.class && keyType != ByteString.class && keyType != Object.class) {
+            throw new IllegalArgumentException("Unsupported map key type " + keyType.getTypeName());
+        }
+
+        final var binary = keyType == ByteString.class;
+        return cursor -> {
+            cursor.expect(Type.Tokens.DICTIONARY);
+            cursor.enterContainer();
+            try {
+                final var map = new LinkedHashMap<>();
+                int token;
+                while ((token = cursor.peek()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(token);
+                    cursor.limits().checkContainerSize(map.size() + 1L);
+                    final Object key = binary ? cursor.readByteString() : cursor.readString();
+                    map.put(key, value.read(cursor));
+                }
+                cursor.expect(Type.Tokens.TERMINATOR);
+                return map;
+            } finally {
+                cursor.exitContainer();
+            }
+        };
+    }
+
+    // Collection elements and map values are written like properties, so booleans and enums decode back the same way.
+    private static long valueSize(final Object value) throws IOException {
+        return switch (value) {
+            case Boolean ignored -> 3;
+            case Enum<?> constant -> Type.STRING.encodedSize(constant.name());
+            case Iterable<?> iterable -> {
+                if (!(iterable instanceof Collection<?>)) {
+                    yield -1;
+                }
+                var size = 2L;
+                for (final var item : iterable) {
+                    final var itemSize = valueSize(Objects.requireNonNull(item, "element"));
+                    if (itemSize < 0) {
+                        yield -1;
+                    }
+                    size += itemSize;
+                }
+                yield size;
+            }
+            case Map<?, ?> map -> {
+                var size = 2L;
+                for (final var entry : map.entrySet()) {
+                    final var valueSize = valueSize(Objects.requireNonNull(entry.getValue(), "value"));
+                    if (valueSize < 0) {
+                        yield -1;
+                    }
+                    size += Bytes.stringSize(key(entry.getKey()).length()) + valueSize;
+                }
+                yield size;
+            }
+            default -> Type.UNKNOWN.encodedSize(value);
+        };
+    }
+
+    private static void encodeValue(final Object value, final BencodeOutputStream stream) throws IOException {
+        switch (value) {
+            case Boolean bool -> {
+                stream.write(Type.Tokens.NUMBER);
+                stream.write(bool ? '1' : '0');
+                stream.write(Type.Tokens.TERMINATOR);
+            }
+            case Enum<?> constant -> Type.STRING.encode(constant.name(), stream);
+            case Iterable<?> iterable -> {
+                stream.write(Type.Tokens.LIST);
+                for (final var item : iterable) {
+                    encodeValue(Objects.requireNonNull(item, "element"), stream);
+                }
+                stream.write(Type.Tokens.TERMINATOR);
+            }
+            case Map<?, ?> map -> {
+                // Ordered by raw key bytes, as DictionaryType writes any other map.
+                final var entries = new ArrayList<Map.Entry<ByteString, Object>>(map.size());
+                for (final var entry : map.entrySet()) {
+                    entries.add(Map.entry(key(entry.getKey()), Objects.requireNonNull(entry.getValue(), "value")));
+                }
+                entries.sort(Map.Entry.comparingByKey());
+
+                stream.write(Type.Tokens.DICTIONARY);
+                for (var i = 0; i < entries.size(); i++) {
+                    final var key = entries.get(i).getKey();
+                    if (i > 0 && entries.get(i - 1).getKey().equals(key)) {
+                        throw new InvalidObjectException("Duplicate dictionary key '" + key + "'");
+                    }
+                    Bytes.writeDecimal(stream, key.length());
+                    stream.write(Type.Tokens.SEPARATOR);
+                    key.writeTo(stream);
+                    encodeValue(entries.get(i).getValue(), stream);
+                }
+                stream.write(Type.Tokens.TERMINATOR);
+            }
+            default -> Type.UNKNOWN.encode(value, stream);
+        }
+    }
+
+    private static ByteString key(final Object key) {
+        return switch (key) {
+            case ByteString string -> string;
+            case byte[] bytes -> ByteString.wrap(bytes, 0, bytes.length);
+            default -> ByteString.of(key.toString());
+        };
+    }
+
+    private static long range(final long value, final long min, final long max) {
+        if (value < min || value > max) {
+            throw new NumberFormatException("Integer out of range [" + min + ", " + max + "]: " + value);
+        }
+        return value;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(final Class<?> type, final String name) throws InvalidObjectException {
+        try {
+            return Enum.valueOf((Class) type, name);
+        } catch (final IllegalArgumentException e) {
+            throw new InvalidObjectException("Unknown " + type.getSimpleName() + " constant '" + name + "'");
+        }
+    }
+
+    private static Object zero(final Class<?> type) {
+        if (!type.isPrimitive()) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        }
+        throw new IllegalArgumentException("Unsupported property type " + type.getName());
+    }
+
+    private static IOException failure(final String message, final Throwable t) {
+        return t instanceof IOException e ? e : new IOException(message, t);
+    }
+
+    @FunctionalInterface
+    private interface Decoder {
+
+        Object read(BencodeCursor cursor) throws IOException;
+
+    }
+
+    private record Property(String name, byte[] key, byte[] prefix, Class<?> type, Decoder decoder, boolean optional,
+                            MethodHandle getter, MethodHandle setter, int argument) {
+
+        private static Property of(final String name, final BencodeKey key, final java.lang.reflect.Type type, final Class<?> raw,
+                                   final boolean optional, final MethodHandle getter, final MethodHandle setter, final int argument) {
+            // UTF-8 whatever the platform charset is, so keys match the ones the annotation processor compiles in.
+            final var bytes = (key == null || key.value().isEmpty() ? name : key.value()).getBytes(StandardCharsets.UTF_8);
+            final var length = Integer.toString(bytes.length).getBytes();
+            final var prefix = Arrays.copyOf(length, length.length + 1 + bytes.length);
+            prefix[length.length] = Type.Tokens.SEPARATOR;
+            System.arraycopy(bytes, 0, prefix, length.length + 1, bytes.length);
+
+            final var getterType = getter.asType(MethodType.methodType(Object.class, Object.class));
+            final var setterType = setter == null ? null : setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            return new Property(name, bytes, prefix, raw, BencodeBinding.decoder(type), optional, getterType, setterType, argument);
+        }
+
+    }
+
+    private record Binding(Class<?> type, Property[] properties, byte[][] keys, MethodHandle constructor) {
+
+        private static Binding of(final Class<?> type) {
+            final MethodHandles.Lookup lookup;
+            try {
+                lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            } catch (final IllegalAccessException e) {
+                throw new IllegalArgumentException("Cannot access " + type.getName(), e);
+            }
+
+            final var properties = new ArrayList<Property>();
+            final MethodHandle constructor;
+            try {
+                if (type.isRecord()) {
+                    final var components = type.getRecordComponents();
+                    final var parameters = new Class<?>[components.length];
+                    for (var i = 0; i < components.length; i++) {
+                        final var component = components[i];
+                        parameters[i] = component.getType();
+                        properties.add(Property.of(component.getName(), component.getAnnotation(BencodeKey.class),
+                                component.getGenericType(), component.getType(), component.isAnnotationPresent(BencodeOptional.class),
+                                lookup.unreflect(component.getAccessor()), null, i));
+                    }
+                    constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameters))
+                            .asSpreader(Object[].class, parameters.length)
+                            .asType(MethodType.methodType(Object.class, Object[].class));
+                } else {
+                    for (var c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                        for (final Field field : c.getDeclaredFields()) {
+                            final var key = field.getAnnotation(BencodeKey.class);
+                            if (key == null || Modifier.isStatic(field.getModifiers())) {
+                                continue;
+                            }
+                            if (Modifier.isFinal(field.getModifiers())) {
+                                throw new IllegalArgumentException("Bound field " + field + " cannot be final");
+                            }
+                            properties.add(Property.of(field.getName(), key, field.getGenericType(), field.getType(),
+                                    field.isAnnotationPresent(BencodeOptional.class),
+                                    lookup.unreflectGetter(field), lookup.unreflectSetter(field), -1));
+                        }
+                    }
+                    constructor = lookup.findConstructor(type, MethodType.methodType(void.class))
+                            .asType(MethodType.methodType(Object.class));
+                }
+            } catch (final NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalArgumentException("Cannot bind " + type.getName(), e);
+            }
+
+            // Keys are kept in encoded order, which is also the order canonical input arrives in.
+            properties.sort(Comparator.comparing(Property::key, Arrays::compareUnsigned));
+            final var keys = new byte[properties.size()][];
+            for (var i = 0; i < keys.length; i++) {
+                keys[i] = properties.get(i).key();
+                if (i > 0 && Arrays.equals(keys[i - 1], keys[i])) {
+                    throw new IllegalArgumentException("Duplicate key '" + new String(keys[i], StandardCharsets.UTF_8) + "' in " + type.getName());
+                }
+            }
+            return new Binding(type, properties.toArray(Property[]::new), keys, constructor);
+        }
+
+        private Object decode(final BencodeCursor cursor) throws IOException {
+            cursor.expect(Type.Tokens.DICTIONARY);
+            final var values = new Object[properties.length];
+            final var present = new boolean[properties.length];
+            cursor.enterContainer();
+            try {
+                var hint = 0;
+                int token;
+                while ((token = cursor.peek()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(token);
+                    final var index = cursor.readKey(keys, hint);
+                    if (index < 0) {
+                        cursor.skipValue();
+                        continue;
+                    }
+                    values[index] = properties[index].decoder().read(cursor);
+                    present[index] = true;
+                    hint = index + 1;
+                }
+                cursor.expect(Type.Tokens.TERMINATOR);
+            } finally {
+                cursor.exitContainer();
+            }
+
+            for (var i = 0; i < properties.length; i++) {
+                final var property = properties[i];
+                if (!present[i]) {
+                    if (!property.optional()) {
+                        throw new InvalidObjectException("Missing key '" + new String(property.key(), StandardCharsets.UTF_8) + "' for " + type.getName());
+                    }
+                    values[i] = zero(property.type());
+                }
+            }
+
+            try {
+                if (type.isRecord()) {
+                    final var arguments = new Object[properties.length];
+                    for (var i = 0; i < properties.length; i++) {
+                        arguments[properties[i].argument()] = values[i];
+                    }
+                    return (Object) constructor.invokeExact(arguments);
+                }
+
+                final var object = (Object) constructor.invokeExact();
+                for (var i = 0; i < properties.length; i++) {
+                    if (present[i]) {
+                        properties[i].setter().invokeExact(object, values[i]);
+                    }
+                }
+                return object;
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable t) {
+                throw failure("Exception thrown while constructing " + type.getName(), t);
+            }
+        }
+
+        private long encodedSize(final Object object) throws IOException {
+            var size = 2L;
+            for (final var property : properties) {
+                final var value = get(property, object);
+                if (value == null) {
+                    continue;
+                }
+                final var valueSize = valueSize(value);
+                if (valueSize < 0) {
+                    return -1;
+                }
+                size += property.prefix().length + valueSize;
+            }
+            return size;
+        }
+
+        private void encode(final Object object, final BencodeOutputStream stream) throws IOException {
+            stream.write(Type.Tokens.DICTIONARY);
+            for (final var property : properties) {
+                final var value = get(property, object);
+                if (value == null) {
+                    continue;
+                }
+                stream.write(property.prefix());
+                encodeValue(value, stream);
+            }
+            stream.write(Type.Tokens.TERMINATOR);
+        }
+
+        private static Object get(final Property property, final Object object) throws IOException {
+            final Object value;
+            try {
+                value = (Object) property.getter().invokeExact(object);
+            } catch (final RuntimeException | Error e) {
+                throw e;
+            } catch (final Throwable t) {
+                throw failure("Exception thrown while reading " + property.name(), t);
+            }
+            if (value == null && !property.optional()) {
+                throw new NullPointerException(property.name());
+            }
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,598 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import io.github.mishyy.bencode.util.Bytes;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public final class BencodeCursor {
+
+    private static final int EOF = -1;
+    private static final long MULTIPLY_MIN = Long.MIN_VALUE / 10;
+    private static final byte LIST = 1;
+    private static final byte DICTIONARY_KEY = 2;
+    private static final byte DICTIONARY_VALUE = 3;
+
+    private byte[] array;
+    private ByteBuffer buffer;
+    private int start;
+    private int limit;
+    private int position;
+    private byte[] scratch;
+    // readValue's container stack, kept so a reused cursor does not allocate it per value.
+    private Object[] containers;
+    private Object[] keys;
+    private byte[] scopes;
+    private StringMode stringMode = StringMode.STRING;
+    private NumberMode numberMode = NumberMode.LONG;
+    private KeyCache keyCache;
+    private Number slowNumber;
+    private DecodeLimits limits = DecodeLimits.DEFAULT;
+    private int depth;
+
+    public BencodeCursor(final byte[] bytes) {
+        this(bytes, 0, Objects.requireNonNull(bytes, "bytes").length);
+    }
+
+    public BencodeCursor(final byte[] bytes, final int offset, final int length) {
+        Objects.requireNonNull(bytes, "bytes");
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        this.array = bytes;
+        this.buffer = null;
+        this.start = offset;
+        this.limit = offset + length;
+        this.position = offset;
+    }
+
+    public BencodeCursor(final ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "buffer");
+        if (buffer.hasArray()) {
+            this.array = buffer.array();
+            this.buffer = null;
+            this.start = buffer.arrayOffset() + buffer.position();
+            this.limit = buffer.arrayOffset() + buffer.limit();
+        } else {
+            this.array = null;
+            this.buffer = buffer;
+            this.start = buffer.position();
+            this.limit = buffer.limit();
+        }
+        this.position = start;
+    }
+
+    public BencodeCursor stringMode(final StringMode stringMode) {
+        this.stringMode = Objects.requireNonNull(stringMode, "stringMode");
+        return this;
+    }
+
+    public BencodeCursor numberMode(final NumberMode numberMode) {
+        this.numberMode = Objects.requireNonNull(numberMode, "numberMode");
+        return this;
+    }
+
+    public BencodeCursor keyCache(final KeyCache keyCache) {
+        this.keyCache = keyCache;
+        return this;
+    }
+
+    // The whole input is known up front, so its size is checked as soon as the limits are set.
+    public BencodeCursor limits(final DecodeLimits limits) {
+        this.limits = Objects.requireNonNull(limits, "limits");
+        limits.checkTotalBytes(limit - start);
+        return this;
+    }
+
+    BencodeCursor reset(final byte[] bytes, final int offset, final int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        this.array = bytes;
+        this.buffer = null;
+        this.start = offset;
+        this.limit = offset + length;
+        this.position = offset;
+        this.slowNumber = null;
+        this.depth = 0;
+        limits.checkTotalBytes(length);
+        return this;
+    }
+
+    public int position() {
+        return position - start;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    public Type<?> nextType() throws IOException {
+        final var token = peek();
+        Bytes.checkEOF(token);
+        return Bytes.extractType(token);
+    }
+
+    public byte[] readBytes() throws IOException {
+        final var length = readLength();
+        final var offset = position;
+        position += length;
+        if (array != null) {
+            return Arrays.copyOfRange(array, offset, offset + length);
+        }
+
+        final var bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return bytes;
+    }
+
+    public String readString() throws IOException {
+        return string(readLength());
+    }
+
+    public ByteBuffer readSlice() throws IOException {
+        final var length = readLength();
+        final var offset = position;
+        position += length;
+
+        final var slice = array != null ? ByteBuffer.wrap(array, offset, length).slice() : buffer.slice(offset, length);
+        return slice.asReadOnlyBuffer();
+    }
+
+    public ByteString readByteString() throws IOException {
+        return byteString(readLength());
+    }
+
+    public Number readNumber() throws IOException {
+        final var value = readInteger();
+        final var slow = slowNumber;
+        if (slow == null) {
+            return value;
+        }
+        slowNumber = null;
+        return Bytes.checkNumber(slow, numberMode);
+    }
+
+    public long readLong() throws IOException {
+        final var value = readInteger();
+        final var slow = slowNumber;
+        if (slow == null) {
+            return value;
+        }
+        slowNumber = null;
+        return Bytes.checkNumber(slow, NumberMode.LONG).longValue();
+    }
+
+    // Decodes one value of any type without recursing: open containers sit on an explicit stack and every token is
+    // dispatched by a single switch, so nesting is bounded by DecodeLimits rather than by the thread's stack.
+    public Object readValue() throws IOException {
+        final var base = depth;
+        try {
+            return readTree();
+        } finally {
+            // Containers left open by a failure must not count against the next value.
+            if (depth != base) {
+                depth = base;
+                // They also stay on the reused stack, which must not keep the partial values reachable.
+                if (containers != null) {
+                    Arrays.fill(containers, null);
+                    Arrays.fill(keys, null);
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readTree() throws IOException {
+        var top = 0;
+        while (true) {
+            final var token = peek();
+            final var scope = top > 0 ? scopes[top - 1] : 0;
+
+            final Object value;
+            if (token == Type.Tokens.TERMINATOR && (scope == LIST || scope == DICTIONARY_KEY)) {
+                position++;
+                value = containers[--top];
+                containers[top] = null;
+                exitContainer();
+            } else if (scope == DICTIONARY_KEY) {
+                Bytes.checkEOF(token);
+                limits.checkContainerSize(((Map<?, ?>) containers[top - 1]).size() + 1L);
+                final var length = readLength();
+                keys[top - 1] = stringMode == StringMode.BYTE_STRING ? byteString(length) : key(length);
+                scopes[top - 1] = DICTIONARY_VALUE;
+                continue;
+            } else {
+                if (scope == LIST) {
+                    limits.checkContainerSize(((List<?>) containers[top - 1]).size() + 1L);
+                }
+                switch (token) {
+                    case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> value = switch (stringMode) {
+                        case STRING -> readString();
+                        case BUFFER -> readSlice();
+                        case BYTE_STRING -> readByteString();
+                    };
+                    case Type.Tokens.NUMBER -> value = readNumber();
+                    case Type.Tokens.LIST, Type.Tokens.DICTIONARY -> {
+                        position++;
+                        enterContainer();
+                        if (containers == null) {
+                            containers = new Object[16];
+                            keys = new Object[16];
+                            scopes = new byte[16];
+                        } else if (top == containers.length) {
+                            containers = Arrays.copyOf(containers, top << 1);
+                            keys = Arrays.copyOf(keys, top << 1);
+                            scopes = Arrays.copyOf(scopes, top << 1);
+                        }
+                        containers[top] = token == Type.Tokens.LIST ? new ArrayList<>() : new LinkedHashMap<>();
+                        scopes[top++] = token == Type.Tokens.LIST ? LIST : DICTIONARY_KEY;
+                        continue;
+                    }
+                    default -> {
+                        Bytes.checkEOF(token);
+                        throw new InvalidObjectException("Unknown token '" + new String(Character.toChars(token)) + "'");
+                    }
+                }
+            }
+
+            if (top == 0) {
+                return value;
+            }
+            if (scopes[top - 1] == LIST) {
+                ((List<Object>) containers[top - 1]).add(value);
+            } else {
+                ((Map<Object, Object>) containers[top - 1]).put(keys[top - 1], value);
+                keys[top - 1] = null;
+                scopes[top - 1] = DICTIONARY_KEY;
+            }
+        }
+    }
+
+    public void visit(final BencodeVisitor visitor) throws IOException {
+        Objects.requireNonNull(visitor, "visitor");
+
+        var scopes = new byte[16];
+        var depth = 0;
+        do {
+            final var token = peek();
+            Bytes.checkEOF(token);
+            if (depth > 0 && scopes[depth - 1] == DICTIONARY_KEY && token != Type.Tokens.TERMINATOR) {
+                final var length = readLength();
+                final var offset = array != null ? position : 0;
+                visitor.onKey(bytes(length), offset, length);
+                scopes[depth - 1] = DICTIONARY_VALUE;
+                continue;
+            }
+
+            switch (token) {
+                case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+                    final var length = readLength();
+                    final var offset = array != null ? position : 0;
+                    visitor.onBytes(bytes(length), offset, length);
+                }
+                case Type.Tokens.NUMBER -> visitor.onInteger(readLong());
+                case Type.Tokens.LIST, Type.Tokens.DICTIONARY -> {
+                    limits.checkDepth(this.depth + depth + 1);
+                    position++;
+                    if (depth == scopes.length) {
+                        scopes = Arrays.copyOf(scopes, depth << 1);
+                    }
+                    if (token == Type.Tokens.LIST) {
+                        scopes[depth++] = LIST;
+                        visitor.onListStart();
+                    } else {
+                        scopes[depth++] = DICTIONARY_KEY;
+                        visitor.onDictionaryStart();
+                    }
+                    continue;
+                }
+                case Type.Tokens.TERMINATOR -> {
+                    if (depth == 0 || scopes[depth - 1] == DICTIONARY_VALUE) {
+                        throw unexpected(token);
+                    }
+                    position++;
+                    if (scopes[--depth] == LIST) {
+                        visitor.onListEnd();
+                    } else {
+                        visitor.onDictionaryEnd();
+                    }
+                }
+                default -> throw new InvalidObjectException("Unknown token '" + new String(Character.toChars(token)) + "'");
+            }
+            if (depth > 0 && scopes[depth - 1] == DICTIONARY_VALUE) {
+                scopes[depth - 1] = DICTIONARY_KEY;
+            }
+        } while (depth > 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Iterable<T> readList() throws IOException {
+        if (peek() != Type.Tokens.LIST) {
+            expect(Type.Tokens.LIST);
+        }
+        return (Iterable<T>) readValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> readDictionary() throws IOException {
+        if (peek() != Type.Tokens.DICTIONARY) {
+            expect(Type.Tokens.DICTIONARY);
+        }
+        return (Map<K, V>) readValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> readDictionary(final String key, final MessageDigest... digests) throws IOException {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(digests, "digests");
+        return (Map<K, V>) dictionary(key.getBytes(), digests);
+    }
+
+    public void skipValue() throws IOException {
+        var nesting = 0;
+        do {
+            final var token = peek();
+            Bytes.checkEOF(token);
+            switch (token) {
+                case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+                    final var length = readLength();
+                    position += length;
+                }
+                case Type.Tokens.NUMBER -> {
+                    position++;
+                    int b;
+                    while ((b = read()) != Type.Tokens.TERMINATOR) {
+                        Bytes.checkEOF(b);
+                    }
+                }
+                case Type.Tokens.LIST, Type.Tokens.DICTIONARY -> {
+                    limits.checkDepth(depth + ++nesting);
+                    position++;
+                }
+                case Type.Tokens.TERMINATOR -> {
+                    if (nesting == 0) {
+                        throw unexpected(token);
+                    }
+                    position++;
+                    nesting--;
+                }
+                default -> throw new InvalidObjectException("Unknown token '" + new String(Character.toChars(token)) + "'");
+            }
+        } while (nesting > 0);
+    }
+
+    private Map<Object, Object> dictionary(final byte[] target, final MessageDigest[] digests) throws IOException {
+        expect(Type.Tokens.DICTIONARY);
+        final var map = new LinkedHashMap<>();
+        enterContainer();
+        try {
+            int token;
+            while ((token = peek()) != Type.Tokens.TERMINATOR) {
+                Bytes.checkEOF(token);
+                limits.checkContainerSize(map.size() + 1L);
+                final var length = readLength();
+                final var matches = target != null && keyEquals(target, length);
+                final Object name = stringMode == StringMode.BYTE_STRING ? byteString(length) : key(length);
+
+                final var offset = position;
+                map.put(name, readValue());
+                if (matches) {
+                    for (final var digest : digests) {
+                        update(digest, offset, position - offset);
+                    }
+                }
+            }
+            position++;
+        } finally {
+            exitContainer();
+        }
+        return map;
+    }
+
+    private long readInteger() throws IOException {
+        if (depth == 0) {
+            // A top-level integer is the whole value, so it is held to the same budget as a container.
+            limits.checkTotalBytes(limit - start);
+        }
+        expect(Type.Tokens.NUMBER);
+
+        final var offset = position;
+        var negative = false;
+        var token = read();
+        if (token == '-') {
+            negative = true;
+            token = read();
+        }
+
+        // Accumulate negatively so that Long.MIN_VALUE fits.
+        var value = 0L;
+        var digits = 0;
+        while (token >= '0' && token <= '9') {
+            final var digit = token - '0';
+            if (value < MULTIPLY_MIN || value * 10 < Long.MIN_VALUE + digit) {
+                break;
+            }
+            value = value * 10 - digit;
+            digits++;
+            token = read();
+        }
+        if (token == Type.Tokens.TERMINATOR && digits > 0 && (negative || value != Long.MIN_VALUE)) {
+            limits.checkIntegerDigits(digits);
+            return negative ? value : -value;
+        }
+
+        // Overflow and malformed input are left to Bytes.parseNumber, which accepts nothing but digits.
+        position = offset;
+        int b;
+        while ((b = read()) != Type.Tokens.TERMINATOR) {
+            Bytes.checkEOF(b);
+        }
+        final var length = position - offset - 1;
+        limits.checkIntegerDigits(negative ? length - 1L : length);
+        final String text;
+        if (array != null) {
+            text = new String(array, offset, length, StandardCharsets.US_ASCII);
+        } else {
+            final var bytes = new byte[length];
+            buffer.get(offset, bytes);
+            text = new String(bytes, StandardCharsets.US_ASCII);
+        }
+        slowNumber = Bytes.parseNumber(text);
+        return 0;
+    }
+
+    private int readLength() throws IOException {
+        var token = read();
+        Bytes.checkEOF(token);
+
+        var length = 0;
+        do {
+            if (token < '0' || token > '9') {
+                throw unexpected(token);
+            }
+            if (length > (Integer.MAX_VALUE - (token - '0')) / 10) {
+                throw new NumberFormatException("Length prefix exceeds " + Integer.MAX_VALUE);
+            }
+            length = length * 10 + (token - '0');
+            token = read();
+            Bytes.checkEOF(token);
+        } while (token != Type.Tokens.SEPARATOR);
+
+        limits.checkStringLength(length);
+        if (length > remaining()) {
+            position = limit;
+            throw new EOFException();
+        }
+        return length;
+    }
+
+    private boolean keyEquals(final byte[] key, final int length) {
+        if (key.length != length) {
+            return false;
+        }
+        if (array != null) {
+            return Arrays.equals(array, position, position + length, key, 0, length);
+        }
+        return buffer.slice(position, length).equals(ByteBuffer.wrap(key));
+    }
+
+    private void update(final MessageDigest digest, final int offset, final int length) {
+        if (array != null) {
+            digest.update(array, offset, length);
+        } else {
+            digest.update(buffer.slice(offset, length));
+        }
+    }
+
+    private String key(final int length) {
+        if (keyCache == null || length > keyCache.maxKeyLength()) {
+            return string(length);
+        }
+        final var offset = array != null ? position : 0;
+        return keyCache.intern(bytes(length), offset, length);
+    }
+
+    private ByteString byteString(final int length) {
+        // Heap input is shared rather than copied; direct buffers have no array to share.
+        final var offset = position;
+        position += length;
+        if (array != null) {
+            return ByteString.wrap(array, offset, length);
+        }
+
+        final var bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return ByteString.wrap(bytes, 0, length);
+    }
+
+    private String string(final int length) {
+        final var offset = array != null ? position : 0;
+        return new String(bytes(length), offset, length);
+    }
+
+    private byte[] bytes(final int length) {
+        // Heap input is handed out in place; direct buffers are staged through a reused scratch array.
+        if (array != null) {
+            position += length;
+            return array;
+        }
+        if (scratch == null || scratch.length < length) {
+            scratch = new byte[length];
+        }
+        buffer.get(position, scratch, 0, length);
+        position += length;
+        return scratch;
+    }
+
+    int readKey(final byte[][] keys, final int hint) throws IOException {
+        final var length = readLength();
+        // Canonical input lists keys in the same order as the table, so the slot after the last match is tried first.
+        for (var i = 0; i < keys.length; i++) {
+            final var index = hint + i < keys.length ? hint + i : hint + i - keys.length;
+            if (keyEquals(keys[index], length)) {
+                position += length;
+                return index;
+            }
+        }
+        position += length;
+        return -1;
+    }
+
+    DecodeLimits limits() {
+        return limits;
+    }
+
+    void enterContainer() {
+        limits.checkDepth(depth + 1);
+        if (depth == 0) {
+            limits.checkTotalBytes(limit - start);
+        }
+        depth++;
+    }
+
+    void exitContainer() {
+        depth--;
+    }
+
+    void expect(final int expected) throws IOException {
+        final var token = peek();
+        Bytes.checkEOF(token);
+        if (token != expected) {
+            throw unexpected(token);
+        }
+        position++;
+    }
+
+    int peek() {
+        return position < limit ? byteAt(position) : EOF;
+    }
+
+    private int read() {
+        return position < limit ? byteAt(position++) : EOF;
+    }
+
+    private int byteAt(final int index) {
+        return (array != null ? array[index] : buffer.get(index)) & 0xFF;
+    }
+
+    private static InvalidObjectException unexpected(final int token) {
+        return new InvalidObjectException("Unexpected token '" + new String(Character.toChars(token)) + "' ");
+    }
+
+    public enum StringMode {
+
+        STRING,
+        BUFFER,
+        BYTE_STRING
+
+    }
+
+}
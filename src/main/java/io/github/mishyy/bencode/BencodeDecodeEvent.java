@@ -0,0 +1,11 @@
+package io.github.mishyy.bencode;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.github.mishyy.bencode.Decode")
+@Label("Bencode Decode")
+@Description("A value decoded from bencoded input")
+public final class BencodeDecodeEvent extends BencodeEvent {
+}
@@ -0,0 +1,87 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+
+import java.io.InputStream;
+import java.util.Objects;
+
+public final class BencodeDecoder {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final BencodeCursor cursor = new BencodeCursor(EMPTY);
+    private final BencodeInputStream stream = new BencodeInputStream(InputStream.nullInputStream());
+
+    public BencodeDecoder() {
+        this(Bencode.get().keyCache());
+    }
+
+    public BencodeDecoder(final KeyCache keyCache) {
+        cursor.keyCache(keyCache);
+        stream.keyCache(keyCache);
+    }
+
+    public BencodeDecoder numberMode(final NumberMode numberMode) {
+        cursor.numberMode(numberMode);
+        stream.numberMode(numberMode);
+        return this;
+    }
+
+    public BencodeDecoder limits(final DecodeLimits limits) {
+        Objects.requireNonNull(limits, "limits");
+        cursor.limits(limits);
+        stream.limits(limits);
+        return this;
+    }
+
+    public Object decode(final byte[] bytes) {
+        Objects.requireNonNull(bytes, "bytes");
+        return decode(bytes, 0, bytes.length);
+    }
+
+    public Object decode(final byte[] bytes, final int offset, final int length) {
+        Objects.requireNonNull(bytes, "bytes");
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+
+        try {
+            return cursor.reset(bytes, offset, length).readValue();
+        } catch (final Throwable t) {
+            throw BencodeException.wrap("Exception thrown during decoding", t);
+        } finally {
+            reset();
+        }
+    }
+
+    // Reads one value; bytes after it may already have been consumed from in by the internal buffer.
+    public Object decode(final InputStream in) {
+        Objects.requireNonNull(in, "in");
+
+        try {
+            return Type.UNKNOWN.decode(stream.reset(in));
+        } catch (final Throwable t) {
+            throw BencodeException.wrap("Exception thrown during decoding", t);
+        } finally {
+            reset();
+        }
+    }
+
+    public <T> T decodeObject(final Class<T> type, final byte[] bytes) {
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(bytes, "bytes");
+
+        try {
+            return BencodeBinding.decode(type, cursor.reset(bytes, 0, bytes.length));
+        } catch (final Throwable t) {
+            throw BencodeException.wrap("Exception thrown during decoding", t);
+        } finally {
+            reset();
+        }
+    }
+
+    // Drops references to the last input while keeping the read buffers.
+    public void reset() {
+        cursor.reset(EMPTY, 0, 0);
+        stream.reset(InputStream.nullInputStream());
+    }
+
+}
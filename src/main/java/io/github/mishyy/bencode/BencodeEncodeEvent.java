@@ -0,0 +1,11 @@
+package io.github.mishyy.bencode;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("io.github.mishyy.bencode.Encode")
+@Label("Bencode Encode")
+@Description("A value encoded to bencoded output")
+public final class BencodeEncodeEvent extends BencodeEvent {
+}
@@ -0,0 +1,80 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+public final class BencodeEncoder {
+
+    private static final int DEFAULT_MAX_RETAINED = 1 << 20;
+
+    private final BencodeOutputStream stream = new BencodeOutputStream();
+    private final int maxRetained;
+
+    public BencodeEncoder() {
+        this(DEFAULT_MAX_RETAINED);
+    }
+
+    public BencodeEncoder(final int maxRetained) {
+        if (maxRetained < 0) {
+            throw new IllegalArgumentException("maxRetained < 0");
+        }
+        this.maxRetained = maxRetained;
+    }
+
+    public byte[] encode(final Object object) {
+        Objects.requireNonNull(object, "object");
+
+        try {
+            stream.write(Type.UNKNOWN, object);
+            return Arrays.copyOf(stream.buffer(), stream.size());
+        } catch (final Throwable t) {
+            throw new BencodeException("Exception thrown during encoding", t);
+        } finally {
+            reset();
+        }
+    }
+
+    public void encode(final Object object, final OutputStream out) {
+        Objects.requireNonNull(object, "object");
+        Objects.requireNonNull(out, "out");
+
+        try {
+            stream.write(Type.UNKNOWN, object);
+            out.write(stream.buffer(), 0, stream.size());
+        } catch (final Throwable t) {
+            throw new BencodeException("Exception thrown during encoding", t);
+        } finally {
+            reset();
+        }
+    }
+
+    public int encode(final Object object, final ByteBuffer target) {
+        Objects.requireNonNull(object, "object");
+        Objects.requireNonNull(target, "target");
+
+        try {
+            stream.write(Type.UNKNOWN, object);
+            final var size = stream.size();
+            if (size > target.remaining()) {
+                throw new BufferOverflowException();
+            }
+            target.put(stream.buffer(), 0, size);
+            return size;
+        } catch (final Throwable t) {
+            throw new BencodeException("Exception thrown during encoding", t);
+        } finally {
+            reset();
+        }
+    }
+
+    // The scratch buffer is kept between calls unless a value made it grow past maxRetained.
+    public void reset() {
+        stream.reset(maxRetained);
+    }
+
+}
@@ -0,0 +1,34 @@
+package io.github.mishyy.bencode;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+@Category("Bencode")
+abstract class BencodeEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Type")
+    String type;
+
+    @Label("Size")
+    @DataAmount
+    long bytes;
+
+    @Label("Values")
+    long values;
+
+    @Label("Maximum Depth")
+    int maxDepth;
+
+    @Label("Largest String")
+    @DataAmount
+    long largestString;
+
+    @Label("Failure")
+    String failure;
+
+}
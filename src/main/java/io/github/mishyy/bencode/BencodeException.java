@@ -1,9 +1,14 @@
 package io.github.mishyy.bencode;
 
-public final class BencodeException extends RuntimeException {
+public class BencodeException extends RuntimeException {
 
     public BencodeException(final String message, final Throwable cause) {
         super(message, cause);
     }
 
+    // Limit violations are already descriptive and typed, so they pass through rather than being wrapped.
+    static BencodeException wrap(final String message, final Throwable t) {
+        return t instanceof BencodeLimitException e ? e : new BencodeException(message, t);
+    }
+
 }
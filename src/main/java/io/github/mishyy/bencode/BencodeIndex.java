@@ -0,0 +1,385 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import io.github.mishyy.bencode.util.Bytes;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+
+public final class BencodeIndex {
+
+    // Each value takes STRIDE ints on the tape, in document order: where it starts, where it ends (exclusive) and
+    // the tape entry that follows its subtree.
+    private static final int STRIDE = 3;
+    private static final int START = 0;
+    private static final int END = 1;
+    private static final int NEXT = 2;
+
+    private final byte[] bytes;
+    private int[] tape;
+    private int size;
+
+    private BencodeIndex(final byte[] bytes) {
+        this.bytes = bytes;
+        this.tape = new int[STRIDE * 16];
+    }
+
+    public static BencodeIndex of(final byte[] bytes) {
+        Objects.requireNonNull(bytes, "bytes");
+
+        final var index = new BencodeIndex(bytes);
+        try {
+            index.build();
+        } catch (final Throwable t) {
+            throw new BencodeException("Exception thrown during indexing", t);
+        }
+        return index;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int length() {
+        return tape[END];
+    }
+
+    public Type<?> type() {
+        try {
+            return Bytes.extractType(bytes[tape[START]]);
+        } catch (final InvalidObjectException e) {
+            throw new BencodeException("Exception thrown during type detection", e);
+        }
+    }
+
+    public Object value() {
+        return value(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<Object> list() {
+        if (bytes[tape[START]] != Type.Tokens.LIST) {
+            throw new IllegalStateException("Root value is not a list");
+        }
+        return (List<Object>) value(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> dictionary() {
+        if (bytes[tape[START]] != Type.Tokens.DICTIONARY) {
+            throw new IllegalStateException("Root value is not a dictionary");
+        }
+        return (Map<String, Object>) value(0);
+    }
+
+    private void build() throws IOException {
+        final var length = bytes.length;
+        var open = new int[16];
+        var counts = new int[16];
+        var depth = 0;
+        var position = 0;
+        do {
+            if (position >= length) {
+                throw new EOFException();
+            }
+
+            final var token = bytes[position];
+            final var dictionary = depth > 0 && bytes[tape[open[depth - 1] * STRIDE + START]] == Type.Tokens.DICTIONARY;
+            if (token == Type.Tokens.TERMINATOR) {
+                if (depth == 0 || (dictionary && (counts[depth - 1] & 1) != 0)) {
+                    throw unexpected(token);
+                }
+                final var entry = open[--depth] * STRIDE;
+                tape[entry + END] = ++position;
+                tape[entry + NEXT] = size;
+                continue;
+            }
+            if (dictionary && (counts[depth - 1] & 1) == 0 && (token < '0' || token > '9')) {
+                throw unexpected(token);
+            }
+
+            final var entry = append(position);
+            if (depth > 0) {
+                counts[depth - 1]++;
+            }
+            switch (token) {
+                case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> position = skipString(position);
+                case Type.Tokens.NUMBER -> position = skipNumber(position);
+                case Type.Tokens.LIST, Type.Tokens.DICTIONARY -> {
+                    if (depth == open.length) {
+                        open = Arrays.copyOf(open, depth << 1);
+                        counts = Arrays.copyOf(counts, depth << 1);
+                    }
+                    open[depth] = entry;
+                    counts[depth++] = 0;
+                    position++;
+                    continue;
+                }
+                default -> throw new InvalidObjectException("Unknown token '" + new String(Character.toChars(token & 0xFF)) + "'");
+            }
+            tape[entry * STRIDE + END] = position;
+            tape[entry * STRIDE + NEXT] = size;
+        } while (depth > 0);
+    }
+
+    private int append(final int start) {
+        if ((size + 1) * STRIDE > tape.length) {
+            tape = Arrays.copyOf(tape, tape.length << 1);
+        }
+        tape[size * STRIDE + START] = start;
+        return size++;
+    }
+
+    private int skipString(final int start) throws IOException {
+        final var separator = separator(start);
+        var length = 0L;
+        for (var i = start; i < separator; i++) {
+            length = length * 10 + (bytes[i] - '0');
+            if (length > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Length prefix exceeds " + Integer.MAX_VALUE);
+            }
+        }
+        final var end = separator + 1 + length;
+        if (end > bytes.length) {
+            throw new EOFException();
+        }
+        return (int) end;
+    }
+
+    private int skipNumber(final int start) throws IOException {
+        for (var i = start + 1; i < bytes.length; i++) {
+            if (bytes[i] == Type.Tokens.TERMINATOR) {
+                return i + 1;
+            }
+        }
+        throw new EOFException();
+    }
+
+    private int separator(final int start) throws IOException {
+        for (var i = start; i < bytes.length; i++) {
+            final var b = bytes[i];
+            if (b == Type.Tokens.SEPARATOR) {
+                return i;
+            }
+            if (b < '0' || b > '9') {
+                throw unexpected(b);
+            }
+        }
+        throw new EOFException();
+    }
+
+    private Object value(final int entry) {
+        final var start = tape[entry * STRIDE + START];
+        final var end = tape[entry * STRIDE + END];
+        try {
+            return switch (bytes[start]) {
+                case Type.Tokens.NUMBER -> new BencodeCursor(bytes, start, end - start).readNumber();
+                case Type.Tokens.LIST -> new ListView(entry);
+                case Type.Tokens.DICTIONARY -> new DictionaryView(entry);
+                default -> {
+                    final var offset = separator(start) + 1;
+                    yield new String(bytes, offset, end - offset);
+                }
+            };
+        } catch (final IOException e) {
+            throw new BencodeException("Exception thrown during decoding", e);
+        }
+    }
+
+    private boolean keyEquals(final int entry, final byte[] key) {
+        try {
+            final var offset = separator(tape[entry * STRIDE + START]) + 1;
+            final var end = tape[entry * STRIDE + END];
+            return Arrays.equals(bytes, offset, end, key, 0, key.length);
+        } catch (final IOException e) {
+            throw new BencodeException("Exception thrown during decoding", e);
+        }
+    }
+
+    private int[] children(final int entry) {
+        final var next = tape[entry * STRIDE + NEXT];
+        var children = new int[8];
+        var count = 0;
+        for (var child = entry + 1; child < next; child = tape[child * STRIDE + NEXT]) {
+            if (count == children.length) {
+                children = Arrays.copyOf(children, count << 1);
+            }
+            children[count++] = child;
+        }
+        return Arrays.copyOf(children, count);
+    }
+
+    private static InvalidObjectException unexpected(final int token) {
+        return new InvalidObjectException("Unexpected token '" + new String(Character.toChars(token & 0xFF)) + "' ");
+    }
+
+    private final class ListView extends AbstractList<Object> implements RandomAccess {
+
+        private final int entry;
+        private int[] children;
+
+        private ListView(final int entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object get(final int index) {
+            final var children = children();
+            Objects.checkIndex(index, children.length);
+            return value(children[index]);
+        }
+
+        @Override
+        public int size() {
+            return children().length;
+        }
+
+        private int[] children() {
+            if (children == null) {
+                children = BencodeIndex.this.children(entry);
+            }
+            return children;
+        }
+
+    }
+
+    private final class DictionaryView extends AbstractMap<String, Object> {
+
+        private final int entry;
+        private int[] children;
+        private Set<Map.Entry<String, Object>> entrySet;
+
+        private DictionaryView(final int entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object get(final Object key) {
+            final var index = find(key);
+            return index < 0 ? null : value(children()[index + 1]);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return find(key) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return children().length >> 1;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            if (entrySet == null) {
+                entrySet = new AbstractSet<>() {
+                    @Override
+                    public Iterator<Map.Entry<String, Object>> iterator() {
+                        return new Iterator<>() {
+                            private int index;
+
+                            @Override
+                            public boolean hasNext() {
+                                return index < children().length;
+                            }
+
+                            @Override
+                            public Map.Entry<String, Object> next() {
+                                if (!hasNext()) {
+                                    throw new NoSuchElementException();
+                                }
+                                final var key = children()[index];
+                                index += 2;
+                                return new LazyEntry(key);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return DictionaryView.this.size();
+                    }
+                };
+            }
+            return entrySet;
+        }
+
+        private int find(final Object key) {
+            if (!(key instanceof String string)) {
+                return -1;
+            }
+
+            final var bytes = string.getBytes();
+            final var children = children();
+            for (var i = 0; i < children.length; i += 2) {
+                if (keyEquals(children[i], bytes)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int[] children() {
+            if (children == null) {
+                children = BencodeIndex.this.children(entry);
+            }
+            return children;
+        }
+
+    }
+
+    private final class LazyEntry implements Map.Entry<String, Object> {
+
+        private final int key;
+
+        private LazyEntry(final int key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getKey() {
+            return (String) value(key);
+        }
+
+        @Override
+        public Object getValue() {
+            return value(tape[key * STRIDE + NEXT]);
+        }
+
+        @Override
+        public Object setValue(final Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof Map.Entry<?, ?> entry
+                    && Objects.equals(getKey(), entry.getKey())
+                    && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+
+    }
+
+}
@@ -3,25 +3,122 @@ package io.github.mishyy.bencode;
 import io.github.mishyy.bencode.type.Type;
 import io.github.mishyy.bencode.util.Bytes;
 
+import java.io.EOFException;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PushbackInputStream;
+import java.io.InvalidObjectException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 public final class BencodeInputStream extends FilterInputStream {
 
-    private final PushbackInputStream in;
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final int EOF = -1;
+    private static final long MULTIPLY_MIN = Long.MIN_VALUE / 10;
+    private static final byte LIST = 1;
+    private static final byte DICTIONARY_KEY = 2;
+    private static final byte DICTIONARY_VALUE = 3;
+
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private byte[] scratch;
+    private MessageDigest[] digests;
+    private int digestMark;
+    private NumberMode numberMode = NumberMode.LONG;
+    private KeyCache keyCache;
+    private Number slowNumber;
+    private BencodeMetrics metrics;
+    private DecodeLimits limits = DecodeLimits.DEFAULT;
+    private int depth;
+    private long pulled;
+    private long valueStart = -1;
 
     public BencodeInputStream(final InputStream in) {
-        super(new PushbackInputStream(in));
-        this.in = (PushbackInputStream) super.in;
+        this(in, DEFAULT_BUFFER_SIZE);
     }
 
-    public void unread(final int b) throws IOException {
-        in.unread(b);
+    public BencodeInputStream(final InputStream in, final int size) {
+        super(in);
+        if (size <= 0) {
+            throw new IllegalArgumentException("size <= 0");
+        }
+        this.buffer = new byte[size];
+    }
+
+    public BencodeInputStream numberMode(final NumberMode numberMode) {
+        this.numberMode = Objects.requireNonNull(numberMode, "numberMode");
+        return this;
     }
 
+    public BencodeInputStream keyCache(final KeyCache keyCache) {
+        this.keyCache = keyCache;
+        return this;
+    }
+
+    // Only counts bytes pulled from the underlying stream; per-value statistics come from the Bencode facade.
+    public BencodeInputStream metrics(final BencodeMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    public BencodeInputStream limits(final DecodeLimits limits) {
+        this.limits = Objects.requireNonNull(limits, "limits");
+        return this;
+    }
+
+    public DecodeLimits limits() {
+        return limits;
+    }
+
+    // Container decoders bracket their contents with these so nesting is bounded by DecodeLimits.maxDepth.
+    // The total byte limit applies to each top-level value, so it is measured from where the outermost container opened.
+    public void enterContainer() {
+        limits.checkDepth(depth + 1);
+        if (depth++ == 0) {
+            // The opening token has already been read.
+            valueStart = consumed() - 1;
+        }
+    }
+
+    public void exitContainer() {
+        if (--depth == 0) {
+            valueStart = -1;
+        }
+    }
+
+    BencodeInputStream reset(final InputStream in) {
+        this.in = in;
+        this.position = 0;
+        this.limit = 0;
+        this.digests = null;
+        this.digestMark = 0;
+        this.slowNumber = null;
+        this.depth = 0;
+        this.pulled = 0;
+        this.valueStart = -1;
+        return this;
+    }
+
+    public void unread(final int b) throws IOException {
+        if (position == 0) {
+            // Rare: more bytes pushed back than were consumed from the current fill.
+            final var target = limit < buffer.length ? buffer : new byte[buffer.length << 1];
+            final var shift = target.length - limit;
+            System.arraycopy(buffer, 0, target, shift, limit);
+            buffer = target;
+            position = shift;
+            limit += shift;
+            digestMark += shift;
+        }
+        buffer[--position] = (byte) b;
+    }
 
     public Type<?> nextType() throws IOException {
         final var token = peek();
@@ -30,15 +127,149 @@ public final class BencodeInputStream extends FilterInputStream {
     }
 
     public byte[] readBytes() throws IOException {
-        return Type.BYTES.decode(this);
+        final var outermost = beginValue();
+        try {
+            return Type.BYTES.decode(this);
+        } finally {
+            endValue(outermost);
+        }
     }
 
     public String readString() throws IOException {
-        return Type.STRING.decode(this);
+        return new String(readBytes());
+    }
+
+    public String readKey() throws IOException {
+        if (keyCache == null) {
+            return Type.STRING.decode(this);
+        }
+        final var length = readScratch();
+        return keyCache.intern(scratch, 0, length);
+    }
+
+    public int readKey(final byte[][] keys) throws IOException {
+        final var length = readScratch();
+        // The table is sorted by unsigned bytes, as keys are encoded.
+        var low = 0;
+        var high = keys.length - 1;
+        while (low <= high) {
+            final var middle = (low + high) >>> 1;
+            final var key = keys[middle];
+            final var comparison = Arrays.compareUnsigned(key, 0, key.length, scratch, 0, length);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
     }
 
     public Number readNumber() throws IOException {
-        return Type.NUMBER.decode(this);
+        final var value = readInteger();
+        final var slow = slowNumber;
+        if (slow == null) {
+            return value;
+        }
+        slowNumber = null;
+        return Bytes.checkNumber(slow, numberMode);
+    }
+
+    public long readLong() throws IOException {
+        final var value = readInteger();
+        final var slow = slowNumber;
+        if (slow == null) {
+            return value;
+        }
+        slowNumber = null;
+        return Bytes.checkNumber(slow, NumberMode.LONG).longValue();
+    }
+
+    // Decodes one value of any type without recursing: open containers sit on an explicit stack and every token is
+    // dispatched by a single switch, so nesting is bounded by DecodeLimits rather than by the thread's stack.
+    public Object readValue() throws IOException {
+        final var base = depth;
+        final var outermost = beginValue();
+        try {
+            return readTree();
+        } finally {
+            // Containers left open by a failure must not count against the next value.
+            depth = base;
+            endValue(outermost);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readTree() throws IOException {
+        Object[] containers = null;
+        String[] keys = null;
+        byte[] scopes = null;
+        var top = 0;
+        while (true) {
+            final var token = read();
+            final var scope = top > 0 ? scopes[top - 1] : 0;
+
+            final Object value;
+            if (token == Type.Tokens.TERMINATOR && (scope == LIST || scope == DICTIONARY_KEY)) {
+                value = containers[--top];
+                containers[top] = null;
+                exitContainer();
+            } else if (scope == DICTIONARY_KEY) {
+                Bytes.checkEOF(token);
+                unread(token);
+                limits.checkContainerSize(((Map<?, ?>) containers[top - 1]).size() + 1L);
+                keys[top - 1] = readKey();
+                scopes[top - 1] = DICTIONARY_VALUE;
+                continue;
+            } else {
+                if (scope == LIST) {
+                    limits.checkContainerSize(((List<?>) containers[top - 1]).size() + 1L);
+                }
+                switch (token) {
+                    case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+                        unread(token);
+                        value = Type.STRING.decode(this);
+                    }
+                    case Type.Tokens.NUMBER -> {
+                        unread(token);
+                        value = readNumber();
+                    }
+                    case Type.Tokens.LIST, Type.Tokens.DICTIONARY -> {
+                        enterContainer();
+                        if (containers == null) {
+                            containers = new Object[16];
+                            keys = new String[16];
+                            scopes = new byte[16];
+                        } else if (top == containers.length) {
+                            containers = Arrays.copyOf(containers, top << 1);
+                            keys = Arrays.copyOf(keys, top << 1);
+                            scopes = Arrays.copyOf(scopes, top << 1);
+                        }
+                        containers[top] = token == Type.Tokens.LIST ? new ArrayList<>() : new LinkedHashMap<>();
+                        scopes[top++] = token == Type.Tokens.LIST ? LIST : DICTIONARY_KEY;
+                        continue;
+                    }
+                    default -> {
+                        Bytes.checkEOF(token);
+                        unread(token);
+                        throw new InvalidObjectException("Unknown token '" + new String(Character.toChars(token)) + "'");
+                    }
+                }
+            }
+
+            if (top == 0) {
+                return value;
+            }
+            if (scopes[top - 1] == LIST) {
+                ((List<Object>) containers[top - 1]).add(value);
+            } else {
+                ((Map<Object, Object>) containers[top - 1]).put(keys[top - 1], value);
+                keys[top - 1] = null;
+                scopes[top - 1] = DICTIONARY_KEY;
+            }
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -51,10 +282,416 @@ public final class BencodeInputStream extends FilterInputStream {
         return (Map<K, V>) Type.DICTIONARY.decode(this);
     }
 
-    private int peek() throws IOException {
-        final var b = in.read();
-        in.unread(b);
+    @SuppressWarnings("unchecked")
+    public <K, V> Map<K, V> readDictionary(final String key, final MessageDigest... digests) throws IOException {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(digests, "digests");
+
+        var token = read();
+        Bytes.validateToken(this, Type.DICTIONARY, token);
+        final var map = new LinkedHashMap<>();
+        enterContainer();
+        try {
+            while ((token = read()) != Type.Tokens.TERMINATOR) {
+                Bytes.checkEOF(token);
+                unread(token);
+                limits.checkContainerSize(map.size() + 1L);
+
+                final var name = readKey();
+                if (!name.equals(key)) {
+                    map.put(name, Type.UNKNOWN.decode(this));
+                    continue;
+                }
+
+                // Bytes of the matching value are handed to the digests as they leave the buffer.
+                this.digests = digests;
+                this.digestMark = position;
+                try {
+                    map.put(name, Type.UNKNOWN.decode(this));
+                } finally {
+                    updateDigests();
+                    this.digests = null;
+                }
+            }
+        } finally {
+            exitContainer();
+        }
+        return (Map<K, V>) map;
+    }
+
+    public void skipValue() throws IOException {
+        final var outermost = beginValue();
+        try {
+            skipNested();
+        } finally {
+            endValue(outermost);
+        }
+    }
+
+    public void visit(final BencodeVisitor visitor) throws IOException {
+        Objects.requireNonNull(visitor, "visitor");
+        final var outermost = beginValue();
+        try {
+            visitNested(visitor);
+        } finally {
+            endValue(outermost);
+        }
+    }
+
+    private void skipNested() throws IOException {
+        var nesting = 0;
+        do {
+            final var token = read();
+            switch (token) {
+                case EOF -> Bytes.checkEOF(token);
+                case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+                    unread(token);
+                    skipNBytes(readLength());
+                }
+                case Type.Tokens.NUMBER -> {
+                    int b;
+                    while ((b = read()) != Type.Tokens.TERMINATOR) {
+                        Bytes.checkEOF(b);
+                    }
+                }
+                case Type.Tokens.LIST, Type.Tokens.DICTIONARY -> limits.checkDepth(depth + ++nesting);
+                case Type.Tokens.TERMINATOR -> {
+                    if (nesting == 0) {
+                        unread(token);
+                        throw unexpected(token);
+                    }
+                    nesting--;
+                }
+                default -> {
+                    unread(token);
+                    throw new InvalidObjectException("Unknown token '" + new String(Character.toChars(token)) + "'");
+                }
+            }
+        } while (nesting > 0);
+    }
+
+    private void visitNested(final BencodeVisitor visitor) throws IOException {
+        var scopes = new byte[16];
+        var depth = 0;
+        do {
+            final var token = read();
+            Bytes.checkEOF(token);
+            if (depth > 0 && scopes[depth - 1] == DICTIONARY_KEY && token != Type.Tokens.TERMINATOR) {
+                unread(token);
+                final var length = readScratch();
+                visitor.onKey(scratch, 0, length);
+                scopes[depth - 1] = DICTIONARY_VALUE;
+                continue;
+            }
+
+            switch (token) {
+                case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+                    unread(token);
+                    final var length = readScratch();
+                    visitor.onBytes(scratch, 0, length);
+                }
+                case Type.Tokens.NUMBER -> {
+                    unread(token);
+                    visitor.onInteger(readLong());
+                }
+                case Type.Tokens.LIST, Type.Tokens.DICTIONARY -> {
+                    limits.checkDepth(this.depth + depth + 1);
+                    if (depth == scopes.length) {
+                        scopes = Arrays.copyOf(scopes, depth << 1);
+                    }
+                    if (token == Type.Tokens.LIST) {
+                        scopes[depth++] = LIST;
+                        visitor.onListStart();
+                    } else {
+                        scopes[depth++] = DICTIONARY_KEY;
+                        visitor.onDictionaryStart();
+                    }
+                    continue;
+                }
+                case Type.Tokens.TERMINATOR -> {
+                    if (depth == 0 || scopes[depth - 1] == DICTIONARY_VALUE) {
+                        unread(token);
+                        throw unexpected(token);
+                    }
+                    if (scopes[--depth] == LIST) {
+                        visitor.onListEnd();
+                    } else {
+                        visitor.onDictionaryEnd();
+                    }
+                }
+                default -> {
+                    unread(token);
+                    throw new InvalidObjectException("Unknown token '" + new String(Character.toChars(token)) + "'");
+                }
+            }
+            if (depth > 0 && scopes[depth - 1] == DICTIONARY_VALUE) {
+                scopes[depth - 1] = DICTIONARY_KEY;
+            }
+        } while (depth > 0);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (position >= limit && fill() <= 0) {
+            return EOF;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+
+        if (position >= limit) {
+            // Large reads bypass the buffer entirely rather than being copied through it.
+            if (len >= buffer.length && digests == null) {
+                return pull(b, off, len);
+            }
+            if (fill() <= 0) {
+                return EOF;
+            }
+        }
+
+        final var count = Math.min(limit - position, len);
+        System.arraycopy(buffer, position, b, off, count);
+        position += count;
+        return count;
+    }
+
+    @Override
+    public byte[] readNBytes(final int len) throws IOException {
+        if (len < 0) {
+            throw new IllegalArgumentException("len < 0");
+        }
+        // Only trust the requested length up front when the data is known to be there.
+        if (len > available()) {
+            return super.readNBytes(len);
+        }
+
+        final var bytes = new byte[len];
+        final var count = readNBytes(bytes, 0, len);
+        return count == len ? bytes : Arrays.copyOf(bytes, count);
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+
+        final var buffered = limit - position;
+        if (buffered > 0) {
+            final var count = (int) Math.min(buffered, n);
+            position += count;
+            return count;
+        }
+        final var allowed = allowed();
+        if (digests != null || allowed <= 0) {
+            return fill() > 0 ? skip(n) : 0;
+        }
+        final var skipped = in.skip(Math.min(n, allowed));
+        if (skipped > 0) {
+            pulled += skipped;
+            if (metrics != null) {
+                metrics.bytesIn(skipped);
+            }
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        final var buffered = limit - position;
+        final var available = in.available();
+        return buffered > Integer.MAX_VALUE - available ? Integer.MAX_VALUE : buffered + available;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(final int readLimit) {
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("mark/reset not supported");
+    }
+
+    private long readInteger() throws IOException {
+        final var outermost = beginValue();
+        try {
+            return readDigits();
+        } finally {
+            endValue(outermost);
+        }
+    }
+
+    private long readDigits() throws IOException {
+        var token = read();
+        Bytes.validateToken(this, Type.NUMBER, token);
+
+        token = read();
+        final var negative = token == '-';
+        if (negative) {
+            token = read();
+        }
+
+        // Accumulate negatively so that Long.MIN_VALUE fits.
+        var value = 0L;
+        var digits = 0;
+        while (token >= '0' && token <= '9') {
+            final var digit = token - '0';
+            if (value < MULTIPLY_MIN || value * 10 < Long.MIN_VALUE + digit) {
+                break;
+            }
+            value = value * 10 - digit;
+            digits++;
+            token = read();
+        }
+        if (token == Type.Tokens.TERMINATOR && digits > 0 && (negative || value != Long.MIN_VALUE)) {
+            limits.checkIntegerDigits(digits);
+            return negative ? value : -value;
+        }
+
+        // Overflow and malformed input are left to Bytes.parseNumber, which accepts nothing but digits.
+        final var text = new StringBuilder(32);
+        if (negative) {
+            text.append('-');
+        }
+        if (digits > 0) {
+            text.append(Long.toUnsignedString(-value));
+        }
+        for (; token != Type.Tokens.TERMINATOR; token = read()) {
+            Bytes.checkEOF(token);
+            text.append((char) token);
+            limits.checkIntegerDigits(text.length() - (negative ? 1L : 0L));
+        }
+        slowNumber = Bytes.parseNumber(text.toString());
+        return 0;
+    }
+
+    int readLength() throws IOException {
+        var length = 0;
+        var digits = 0;
+
+        int token;
+        while ((token = read()) != Type.Tokens.SEPARATOR) {
+            Bytes.validateToken(this, Type.STRING, token);
+            final var digit = token - '0';
+            if (length > (Integer.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("Length prefix exceeds " + Integer.MAX_VALUE);
+            }
+            length = length * 10 + digit;
+            digits++;
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Missing length prefix");
+        }
+        limits.checkStringLength(length);
+        return length;
+    }
+
+    int peek() throws IOException {
+        final var b = read();
+        if (b != EOF) {
+            position--;
+        }
         return b;
     }
 
+    private int readScratch() throws IOException {
+        final var length = readLength();
+        if (scratch == null || scratch.length < length) {
+            // Grow with the data actually read so a bogus length prefix cannot force a huge allocation.
+            final var bytes = readNBytes(length);
+            if (bytes.length != length) {
+                throw new EOFException();
+            }
+            scratch = bytes;
+            return length;
+        }
+        if (readNBytes(scratch, 0, length) != length) {
+            throw new EOFException();
+        }
+        return length;
+    }
+
+    private void updateDigests() {
+        if (digests != null) {
+            for (final var digest : digests) {
+                digest.update(buffer, digestMark, position - digestMark);
+            }
+            digestMark = position;
+        }
+    }
+
+    private int fill() throws IOException {
+        updateDigests();
+        digestMark = 0;
+        position = 0;
+        limit = 0;
+
+        final var count = pull(buffer, 0, buffer.length);
+        if (count > 0) {
+            limit = count;
+        }
+        return count;
+    }
+
+    // Scalars read outside any container are top-level values too, so the byte budget starts at their first byte.
+    private boolean beginValue() {
+        if (valueStart >= 0) {
+            return false;
+        }
+        valueStart = consumed();
+        return true;
+    }
+
+    private void endValue(final boolean outermost) {
+        if (outermost) {
+            valueStart = -1;
+        }
+    }
+
+    // Bytes taken from the underlying stream that have not been handed out yet are not consumed.
+    private long consumed() {
+        return pulled - (limit - position);
+    }
+
+    // Outside a value nothing is counted, so raw reads between values and long-lived streams are never cut off.
+    private long allowed() {
+        return valueStart < 0 ? Long.MAX_VALUE : limits.maxTotalBytes() - (pulled - valueStart);
+    }
+
+    private int pull(final byte[] b, final int off, final int len) throws IOException {
+        final var allowed = allowed();
+        if (allowed <= 0) {
+            // Only fail if the input really goes on past the limit.
+            final var next = in.read();
+            if (next != EOF) {
+                throw new BencodeLimitException(DecodeLimits.Limit.TOTAL_BYTES, pulled - valueStart + 1, limits.maxTotalBytes());
+            }
+            return EOF;
+        }
+
+        final var count = in.read(b, off, (int) Math.min(len, allowed));
+        if (count > 0) {
+            pulled += count;
+            if (metrics != null) {
+                metrics.bytesIn(count);
+            }
+        }
+        return count;
+    }
+
+    private static InvalidObjectException unexpected(final int token) {
+        return new InvalidObjectException("Unexpected token '" + new String(Character.toChars(token)) + "' ");
+    }
+
 }
@@ -0,0 +1,17 @@
+package io.github.mishyy.bencode;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Names the dictionary key of a record component or bean field. Bean fields are only bound when annotated.
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.RECORD_COMPONENT, ElementType.FIELD})
+public @interface BencodeKey {
+
+    String value() default "";
+
+}
@@ -0,0 +1,28 @@
+package io.github.mishyy.bencode;
+
+public final class BencodeLimitException extends BencodeException {
+
+    private final DecodeLimits.Limit limit;
+    private final long value;
+    private final long max;
+
+    public BencodeLimitException(final DecodeLimits.Limit limit, final long value, final long max) {
+        super("Maximum " + limit + " of " + max + " exceeded: " + value, null);
+        this.limit = limit;
+        this.value = value;
+        this.max = max;
+    }
+
+    public DecodeLimits.Limit limit() {
+        return limit;
+    }
+
+    public long value() {
+        return value;
+    }
+
+    public long max() {
+        return max;
+    }
+
+}
@@ -0,0 +1,187 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+public final class BencodeMetrics {
+
+    private final LongAdder[] decoded = adders();
+    private final LongAdder[] encoded = adders();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator largestString = new LongAccumulator(Math::max, 0);
+    private final Map<Class<? extends Throwable>, LongAdder> failures = new ConcurrentHashMap<>();
+    private final Histogram decodeLatency = new Histogram();
+    private final Histogram encodeLatency = new Histogram();
+
+    public long decoded(final Type<?> type) {
+        return count(decoded, type);
+    }
+
+    public long encoded(final Type<?> type) {
+        return count(encoded, type);
+    }
+
+    public long bytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long bytesOut() {
+        return bytesOut.sum();
+    }
+
+    public long maxDepth() {
+        return maxDepth.get();
+    }
+
+    public long largestString() {
+        return largestString.get();
+    }
+
+    public Map<Class<? extends Throwable>, Long> failures() {
+        return failures.entrySet().stream().collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, e -> e.getValue().sum()));
+    }
+
+    public Histogram decodeLatency() {
+        return decodeLatency;
+    }
+
+    public Histogram encodeLatency() {
+        return encodeLatency;
+    }
+
+    public void reset() {
+        for (final var adder : decoded) {
+            adder.reset();
+        }
+        for (final var adder : encoded) {
+            adder.reset();
+        }
+        bytesIn.reset();
+        bytesOut.reset();
+        maxDepth.reset();
+        largestString.reset();
+        failures.clear();
+        decodeLatency.reset();
+        encodeLatency.reset();
+    }
+
+    void bytesIn(final long count) {
+        bytesIn.add(count);
+    }
+
+    void bytesOut(final long count) {
+        bytesOut.add(count);
+    }
+
+    void record(final boolean decode, final BencodeShape shape, final long bytes, final long nanos) {
+        final var counts = decode ? decoded : encoded;
+        for (var i = 0; i < counts.length; i++) {
+            if (shape.values[i] != 0) {
+                counts[i].add(shape.values[i]);
+            }
+        }
+        (decode ? bytesIn : bytesOut).add(bytes);
+        maxDepth.accumulate(shape.maxDepth);
+        largestString.accumulate(shape.largestString);
+        (decode ? decodeLatency : encodeLatency).record(nanos);
+    }
+
+    void failure(final boolean decode, final Throwable cause, final long nanos) {
+        failures.computeIfAbsent(cause.getClass(), ignored -> new LongAdder()).increment();
+        (decode ? decodeLatency : encodeLatency).record(nanos);
+    }
+
+    private static LongAdder[] adders() {
+        final var adders = new LongAdder[5];
+        for (var i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    // Strings and byte strings share a wire form, so STRING and BYTES report the same total.
+    private static long count(final LongAdder[] counts, final Type<?> type) {
+        if (type == Type.BYTES || type == Type.STRING) {
+            return counts[BencodeShape.BYTES].sum() + counts[BencodeShape.STRING].sum();
+        } else if (type == Type.NUMBER) {
+            return counts[BencodeShape.NUMBER].sum();
+        } else if (type == Type.LIST) {
+            return counts[BencodeShape.LIST].sum();
+        } else if (type == Type.DICTIONARY) {
+            return counts[BencodeShape.DICTIONARY].sum();
+        }
+
+        var total = 0L;
+        for (final var count : counts) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    // Power-of-two nanosecond buckets: bucket i holds samples in [2^(i-1), 2^i), bucket 0 holds zero.
+    public static final class Histogram {
+
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Histogram() {
+        }
+
+        public long count() {
+            var total = 0L;
+            for (var i = 0; i < buckets.length(); i++) {
+                total += buckets.get(i);
+            }
+            return total;
+        }
+
+        public long maxNanos() {
+            return max.get();
+        }
+
+        // Upper bound of the bucket holding the given percentile, capped at the largest sample seen.
+        public long percentileNanos(final double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("percentile must be within [0, 100]");
+            }
+
+            final var count = count();
+            if (count == 0) {
+                return 0;
+            }
+
+            final var rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+            var seen = 0L;
+            for (var i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min((1L << i) - 1, max.get());
+                }
+            }
+            return max.get();
+        }
+
+        void record(final long nanos) {
+            final var value = Math.max(0, nanos);
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+            max.accumulate(value);
+        }
+
+        void reset() {
+            for (var i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            max.reset();
+        }
+
+    }
+
+}
@@ -1,36 +1,174 @@
 package io.github.mishyy.bencode;
 
 import io.github.mishyy.bencode.type.Type;
+import io.github.mishyy.bencode.type.TypeEncoder;
 
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Objects;
 
 public final class BencodeOutputStream extends FilterOutputStream {
 
+    private static final int DEFAULT_BUFFER_SIZE = 256;
+    private static final int MAX_RETAINED = 64 << 10;
+
+    private final boolean retained;
+    private byte[] buffer;
+    private int count;
+    private int depth;
+    private BencodeMetrics metrics;
+
     public BencodeOutputStream(final OutputStream out) {
         super(out);
+        this.retained = false;
+        this.buffer = new byte[DEFAULT_BUFFER_SIZE];
+    }
+
+    // Keeps everything written in memory for toByteArray, starting from a buffer of exactly size bytes.
+    public BencodeOutputStream(final int size) {
+        super(null);
+        if (size < 0) {
+            throw new IllegalArgumentException("size < 0");
+        }
+        this.retained = true;
+        this.buffer = new byte[size];
+    }
+
+    public BencodeOutputStream() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    public BencodeOutputStream metrics(final BencodeMetrics metrics) {
+        this.metrics = metrics;
+        return this;
     }
 
     public void writeString(final byte[] bytes) throws IOException {
-        write(Type.BYTES.encode(bytes));
+        write(Type.BYTES, bytes);
     }
 
     public void writeString(final String string) throws IOException {
-        write(Type.STRING.encode(string));
+        write(Type.STRING, string);
     }
 
     public void writeNumber(final Number number) throws IOException {
-        write(Type.NUMBER.encode(number));
+        write(Type.NUMBER, number);
     }
 
     public void writeList(final Iterable<?> iterable) throws IOException {
-        write(Type.LIST.encode(iterable));
+        write(Type.LIST, iterable);
     }
 
     public void writeDictionary(final Map<?, ?> map) throws IOException {
-        write(Type.DICTIONARY.encode(map));
+        write(Type.DICTIONARY, map);
+    }
+
+    public <T> void write(final TypeEncoder<T> encoder, final T t) throws IOException {
+        Objects.requireNonNull(encoder, "encoder");
+
+        final var mark = count;
+        final var probe = depth == 0 && metrics != null ? BencodeProbe.encode(metrics, "stream") : null;
+        depth++;
+        try {
+            encoder.encode(t, this);
+        } catch (final Throwable e) {
+            count = mark;
+            if (probe != null) {
+                probe.failure(e);
+            }
+            throw e;
+        } finally {
+            depth--;
+        }
+        if (probe != null) {
+            probe.success(t, count - mark);
+        }
+        drain();
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureCapacity(1);
+        buffer[count++] = (byte) b;
+        drain();
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureCapacity(len);
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+        drain();
+    }
+
+    int size() {
+        return count;
+    }
+
+    byte[] buffer() {
+        return buffer;
+    }
+
+    void reset(final int maxRetained) {
+        count = 0;
+        if (buffer.length > maxRetained) {
+            buffer = new byte[Math.min(maxRetained, DEFAULT_BUFFER_SIZE)];
+        }
+    }
+
+    public byte[] toByteArray() {
+        if (!retained) {
+            throw new IllegalStateException("Output is written through to the underlying stream");
+        }
+
+        // An exactly sized buffer is handed over as is; the stream starts afresh afterwards.
+        final var bytes = count == buffer.length ? buffer : Arrays.copyOf(buffer, count);
+        if (bytes == buffer) {
+            buffer = new byte[0];
+        }
+        count = 0;
+        return bytes;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        if (!retained) {
+            super.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!retained) {
+            super.close();
+        }
+    }
+
+    // A top-level value is held until it is complete so that a failure writes nothing; once it has been passed on, a
+    // buffer grown past MAX_RETAINED by a large value is let go instead of being kept for the stream's lifetime.
+    private void drain() throws IOException {
+        if (!retained && depth == 0 && count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+            if (buffer.length > MAX_RETAINED) {
+                buffer = new byte[DEFAULT_BUFFER_SIZE];
+            }
+        }
+    }
+
+    private void ensureCapacity(final int length) {
+        final var required = count + length;
+        if (required < 0) {
+            throw new OutOfMemoryError("Required buffer size too large");
+        }
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length << 1));
+        }
     }
 
 }
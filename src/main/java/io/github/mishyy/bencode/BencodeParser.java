@@ -0,0 +1,256 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import io.github.mishyy.bencode.util.Bytes;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public final class BencodeParser {
+
+    private static final int TOKEN = 0;
+    private static final int LENGTH = 1;
+    private static final int BYTES = 2;
+    private static final int NUMBER_SIGN = 3;
+    private static final int NUMBER = 4;
+    private static final long MULTIPLY_MIN = Long.MIN_VALUE / 10;
+    private static final int INITIAL_STRING_SIZE = 8192;
+
+    private Object[] containers = new Object[16];
+    private String[] keys = new String[16];
+    private int depth;
+
+    private int state = TOKEN;
+    private int length;
+    private int digits;
+    private byte[] bytes;
+    private int filled;
+    private boolean negative;
+    private long value;
+    private StringBuilder text;
+
+    private Object result;
+    private KeyCache keyCache;
+    private NumberMode numberMode = NumberMode.LONG;
+    private DecodeLimits limits = DecodeLimits.DEFAULT;
+    private long consumed;
+
+    public BencodeParser keyCache(final KeyCache keyCache) {
+        this.keyCache = keyCache;
+        return this;
+    }
+
+    public BencodeParser numberMode(final NumberMode numberMode) {
+        this.numberMode = Objects.requireNonNull(numberMode, "numberMode");
+        return this;
+    }
+
+    public BencodeParser limits(final DecodeLimits limits) {
+        this.limits = Objects.requireNonNull(limits, "limits");
+        return this;
+    }
+
+    public Object feed(final ByteBuffer input) throws IOException {
+        Objects.requireNonNull(input, "input");
+
+        while (input.hasRemaining()) {
+            final var mark = input.position();
+            switch (state) {
+                case TOKEN -> token(input.get() & 0xFF);
+                case LENGTH -> length(input.get() & 0xFF);
+                case BYTES -> {
+                    final var count = Math.min(input.remaining(), length - filled);
+                    if (filled + count > bytes.length) {
+                        bytes = Arrays.copyOf(bytes, (int) Math.min(length, Math.max(filled + count, (long) bytes.length << 1)));
+                    }
+                    input.get(bytes, filled, count);
+                    filled += count;
+                    if (filled == length) {
+                        state = TOKEN;
+                        final var string = bytes;
+                        bytes = null;
+                        complete(string);
+                    }
+                }
+                case NUMBER_SIGN, NUMBER -> number(input.get() & 0xFF);
+                default -> throw new IllegalStateException("Unknown parser state " + state);
+            }
+
+            // Counted per document, so a long-lived connection is not cut off by its history.
+            consumed += input.position() - mark;
+            limits.checkTotalBytes(consumed);
+            if (result != null) {
+                final var value = result;
+                result = null;
+                consumed = 0;
+                return value;
+            }
+        }
+        return null;
+    }
+
+    public boolean isIdle() {
+        return state == TOKEN && depth == 0;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public void reset() {
+        Arrays.fill(containers, 0, depth, null);
+        Arrays.fill(keys, 0, depth, null);
+        depth = 0;
+        state = TOKEN;
+        bytes = null;
+        text = null;
+        result = null;
+        consumed = 0;
+    }
+
+    private void token(final int token) throws IOException {
+        final var awaitingKey = depth > 0 && containers[depth - 1] instanceof Map<?, ?> && keys[depth - 1] == null;
+        if (token == Type.Tokens.TERMINATOR) {
+            if (depth == 0 || (containers[depth - 1] instanceof Map<?, ?> && !awaitingKey)) {
+                throw unexpected(token);
+            }
+            final var container = containers[--depth];
+            containers[depth] = null;
+            complete(container);
+            return;
+        }
+        if (awaitingKey && (token < '0' || token > '9')) {
+            throw unexpected(token);
+        }
+
+        switch (token) {
+            case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> {
+                state = LENGTH;
+                length = token - '0';
+            }
+            case Type.Tokens.NUMBER -> {
+                state = NUMBER_SIGN;
+                negative = false;
+                value = 0;
+                digits = 0;
+                text = null;
+            }
+            case Type.Tokens.LIST -> push(new ArrayList<>());
+            case Type.Tokens.DICTIONARY -> push(new LinkedHashMap<>());
+            default -> throw new InvalidObjectException("Unknown token '" + new String(Character.toChars(token)) + "'");
+        }
+    }
+
+    private void length(final int token) throws IOException {
+        if (token == Type.Tokens.SEPARATOR) {
+            limits.checkStringLength(length);
+            // The prefix alone is not trusted with an allocation; the buffer grows as the payload arrives.
+            bytes = new byte[Math.min(length, INITIAL_STRING_SIZE)];
+            filled = 0;
+            state = BYTES;
+            if (length == 0) {
+                state = TOKEN;
+                bytes = null;
+                complete(new byte[0]);
+            }
+            return;
+        }
+        if (token < '0' || token > '9') {
+            throw unexpected(token);
+        }
+
+        final var digit = token - '0';
+        if (length > (Integer.MAX_VALUE - digit) / 10) {
+            throw new NumberFormatException("Length prefix exceeds " + Integer.MAX_VALUE);
+        }
+        length = length * 10 + digit;
+    }
+
+    private void number(final int token) throws IOException {
+        if (state == NUMBER_SIGN) {
+            state = NUMBER;
+            if (token == '-') {
+                negative = true;
+                return;
+            }
+        }
+
+        if (token == Type.Tokens.TERMINATOR) {
+            if (digits == 0) {
+                throw new NumberFormatException("Empty integer");
+            }
+            state = TOKEN;
+            if (text == null && (negative || value != Long.MIN_VALUE)) {
+                complete(negative ? value : -value);
+                return;
+            }
+
+            // Past a long the number mode decides, as it does for the cursor and the stream.
+            final var slow = text != null ? Bytes.parseNumber(text.toString()) : BigInteger.valueOf(value).negate();
+            text = null;
+            complete(Bytes.checkNumber(slow, numberMode));
+            return;
+        }
+        if (token < '0' || token > '9') {
+            throw new NumberFormatException("Unexpected character '" + (char) token + "' in integer");
+        }
+
+        limits.checkIntegerDigits(++digits);
+        if (text != null) {
+            text.append((char) token);
+            return;
+        }
+
+        // Accumulate negatively so that Long.MIN_VALUE fits; once it cannot, the digits carry on as text.
+        final var digit = token - '0';
+        if (value < MULTIPLY_MIN || value * 10 < Long.MIN_VALUE + digit) {
+            final var prefix = Long.toString(value);
+            text = new StringBuilder(negative ? prefix : prefix.substring(1)).append((char) token);
+            return;
+        }
+        value = value * 10 - digit;
+    }
+
+    private void push(final Object container) {
+        limits.checkDepth(depth + 1);
+        if (depth == containers.length) {
+            containers = Arrays.copyOf(containers, depth << 1);
+            keys = Arrays.copyOf(keys, depth << 1);
+        }
+        containers[depth++] = container;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void complete(final Object value) {
+        if (depth == 0) {
+            result = value instanceof byte[] string ? new String(string) : value;
+            return;
+        }
+
+        final var container = containers[depth - 1];
+        if (container instanceof List<?> list) {
+            limits.checkContainerSize(list.size() + 1L);
+            ((List<Object>) list).add(value instanceof byte[] string ? new String(string) : value);
+        } else if (keys[depth - 1] == null) {
+            limits.checkContainerSize(((Map<?, ?>) container).size() + 1L);
+            final var key = (byte[]) value;
+            keys[depth - 1] = keyCache != null ? keyCache.intern(key, 0, key.length) : new String(key);
+        } else {
+            ((Map<Object, Object>) container).put(keys[depth - 1], value instanceof byte[] string ? new String(string) : value);
+            keys[depth - 1] = null;
+        }
+    }
+
+    private static InvalidObjectException unexpected(final int token) {
+        return new InvalidObjectException("Unexpected token '" + new String(Character.toChars(token)) + "' ");
+    }
+
+}
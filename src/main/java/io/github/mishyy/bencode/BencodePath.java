@@ -0,0 +1,537 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import io.github.mishyy.bencode.util.Bytes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Paths are dot separated keys with optional list steps: "info.files[*].length", "announce-list[0][0]", "*.name".
+// A backslash escapes the next character, so keys containing '.', '[' or '*' can still be named. Several paths compile
+// into one tree, so each input is scanned once however many values are wanted and every other subtree is skipped.
+public final class BencodePath {
+
+    private static final byte[][] NO_KEYS = new byte[0][];
+    private static final Object MISSING = new Object();
+
+    private final String[] expressions;
+    private final Node root;
+
+    private BencodePath(final String[] expressions, final Node root) {
+        this.expressions = expressions;
+        this.root = root;
+    }
+
+    public static BencodePath compile(final String... expressions) {
+        Objects.requireNonNull(expressions, "expressions");
+        if (expressions.length == 0) {
+            throw new IllegalArgumentException("At least one path is required");
+        }
+
+        final var root = new Node();
+        for (final var expression : expressions) {
+            Objects.requireNonNull(expression, "expression");
+            insert(root, expression);
+        }
+        root.seal();
+        return new BencodePath(expressions.clone(), root);
+    }
+
+    // Matched values in document order.
+    public List<Object> select(final BencodeCursor cursor) throws IOException {
+        Objects.requireNonNull(cursor, "cursor");
+        final var values = new ArrayList<>();
+        select(cursor, root, values);
+        return values;
+    }
+
+    public List<Object> select(final BencodeInputStream stream) throws IOException {
+        Objects.requireNonNull(stream, "stream");
+        final var values = new ArrayList<>();
+        select(stream, root, values);
+        return values;
+    }
+
+    // Rebuilds the root dictionary with only the containers and keys on a path. Lists keep the elements a path selects,
+    // so "files[1]" yields a single element list. Values whose type does not fit the path are left out.
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> project(final BencodeCursor cursor) throws IOException {
+        Objects.requireNonNull(cursor, "cursor");
+        if (cursor.peek() != Type.Tokens.DICTIONARY) {
+            cursor.expect(Type.Tokens.DICTIONARY);
+        }
+        final var value = project(cursor, root);
+        return value == MISSING ? new LinkedHashMap<>() : (Map<String, Object>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> project(final BencodeInputStream stream) throws IOException {
+        Objects.requireNonNull(stream, "stream");
+        if (stream.peek() != Type.Tokens.DICTIONARY) {
+            Bytes.validateToken(stream, Type.DICTIONARY, stream.read());
+        }
+        final var value = project(stream, root);
+        return value == MISSING ? new LinkedHashMap<>() : (Map<String, Object>) value;
+    }
+
+    private static void select(final BencodeCursor cursor, final Node node, final List<Object> values) throws IOException {
+        if (node.terminal) {
+            values.add(cursor.readValue());
+            return;
+        }
+
+        final var token = cursor.peek();
+        if (token == Type.Tokens.DICTIONARY && node.hasKeys()) {
+            cursor.expect(token);
+            cursor.enterContainer();
+            try {
+                var size = 0L;
+                var hint = 0;
+                int next;
+                while ((next = cursor.peek()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(next);
+                    cursor.limits().checkContainerSize(++size);
+                    final var index = cursor.readKey(node.keys, hint);
+                    final var child = index >= 0 ? node.children[index] : node.anyKey;
+                    if (index >= 0) {
+                        hint = index + 1;
+                    }
+                    if (child != null) {
+                        select(cursor, child, values);
+                    } else {
+                        cursor.skipValue();
+                    }
+                }
+                cursor.expect(Type.Tokens.TERMINATOR);
+            } finally {
+                cursor.exitContainer();
+            }
+        } else if (token == Type.Tokens.LIST && node.hasIndexes()) {
+            cursor.expect(token);
+            cursor.enterContainer();
+            try {
+                var size = 0;
+                int next;
+                while ((next = cursor.peek()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(next);
+                    cursor.limits().checkContainerSize(size + 1L);
+                    final var child = node.element(size++);
+                    if (child != null) {
+                        select(cursor, child, values);
+                    } else {
+                        cursor.skipValue();
+                    }
+                }
+                cursor.expect(Type.Tokens.TERMINATOR);
+            } finally {
+                cursor.exitContainer();
+            }
+        } else {
+            cursor.skipValue();
+        }
+    }
+
+    private static void select(final BencodeInputStream stream, final Node node, final List<Object> values) throws IOException {
+        if (node.terminal) {
+            values.add(stream.readValue());
+            return;
+        }
+
+        final var token = stream.peek();
+        if (token == Type.Tokens.DICTIONARY && node.hasKeys()) {
+            stream.read();
+            stream.enterContainer();
+            try {
+                var size = 0L;
+                int next;
+                while ((next = stream.read()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(next);
+                    stream.unread(next);
+                    stream.limits().checkContainerSize(++size);
+                    final var index = stream.readKey(node.keys);
+                    final var child = index >= 0 ? node.children[index] : node.anyKey;
+                    if (child != null) {
+                        select(stream, child, values);
+                    } else {
+                        stream.skipValue();
+                    }
+                }
+            } finally {
+                stream.exitContainer();
+            }
+        } else if (token == Type.Tokens.LIST && node.hasIndexes()) {
+            stream.read();
+            stream.enterContainer();
+            try {
+                var size = 0;
+                int next;
+                while ((next = stream.read()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(next);
+                    stream.unread(next);
+                    stream.limits().checkContainerSize(size + 1L);
+                    final var child = node.element(size++);
+                    if (child != null) {
+                        select(stream, child, values);
+                    } else {
+                        stream.skipValue();
+                    }
+                }
+            } finally {
+                stream.exitContainer();
+            }
+        } else {
+            stream.skipValue();
+        }
+    }
+
+    private static Object project(final BencodeCursor cursor, final Node node) throws IOException {
+        if (node.terminal) {
+            return cursor.readValue();
+        }
+
+        final var token = cursor.peek();
+        if (token == Type.Tokens.DICTIONARY && node.hasKeys()) {
+            cursor.expect(token);
+            cursor.enterContainer();
+            try {
+                final var map = new LinkedHashMap<String, Object>();
+                var size = 0L;
+                var hint = 0;
+                int next;
+                while ((next = cursor.peek()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(next);
+                    cursor.limits().checkContainerSize(++size);
+
+                    // Names are only decoded when a wildcard has to report them; named keys are matched in place.
+                    final String name;
+                    final Node child;
+                    if (node.anyKey != null) {
+                        name = cursor.readString();
+                        child = node.named.getOrDefault(name, node.anyKey);
+                    } else {
+                        final var index = cursor.readKey(node.keys, hint);
+                        name = index >= 0 ? node.names[index] : null;
+                        child = index >= 0 ? node.children[index] : null;
+                        if (index >= 0) {
+                            hint = index + 1;
+                        }
+                    }
+                    if (child == null) {
+                        cursor.skipValue();
+                        continue;
+                    }
+
+                    final var value = project(cursor, child);
+                    if (value != MISSING) {
+                        map.put(name, value);
+                    }
+                }
+                cursor.expect(Type.Tokens.TERMINATOR);
+                return map;
+            } finally {
+                cursor.exitContainer();
+            }
+        }
+        if (token == Type.Tokens.LIST && node.hasIndexes()) {
+            cursor.expect(token);
+            cursor.enterContainer();
+            try {
+                final var list = new ArrayList<>();
+                var size = 0;
+                int next;
+                while ((next = cursor.peek()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(next);
+                    cursor.limits().checkContainerSize(size + 1L);
+                    final var child = node.element(size++);
+                    if (child == null) {
+                        cursor.skipValue();
+                        continue;
+                    }
+
+                    final var value = project(cursor, child);
+                    if (value != MISSING) {
+                        list.add(value);
+                    }
+                }
+                cursor.expect(Type.Tokens.TERMINATOR);
+                return list;
+            } finally {
+                cursor.exitContainer();
+            }
+        }
+        cursor.skipValue();
+        return MISSING;
+    }
+
+    private static Object project(final BencodeInputStream stream, final Node node) throws IOException {
+        if (node.terminal) {
+            return stream.readValue();
+        }
+
+        final var token = stream.peek();
+        if (token == Type.Tokens.DICTIONARY && node.hasKeys()) {
+            stream.read();
+            stream.enterContainer();
+            try {
+                final var map = new LinkedHashMap<String, Object>();
+                var size = 0L;
+                int next;
+                while ((next = stream.read()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(next);
+                    stream.unread(next);
+                    stream.limits().checkContainerSize(++size);
+
+                    final String name;
+                    final Node child;
+                    if (node.anyKey != null) {
+                        name = stream.readKey();
+                        child = node.named.getOrDefault(name, node.anyKey);
+                    } else {
+                        final var index = stream.readKey(node.keys);
+                        name = index >= 0 ? node.names[index] : null;
+                        child = index >= 0 ? node.children[index] : null;
+                    }
+                    if (child == null) {
+                        stream.skipValue();
+                        continue;
+                    }
+
+                    final var value = project(stream, child);
+                    if (value != MISSING) {
+                        map.put(name, value);
+                    }
+                }
+                return map;
+            } finally {
+                stream.exitContainer();
+            }
+        }
+        if (token == Type.Tokens.LIST && node.hasIndexes()) {
+            stream.read();
+            stream.enterContainer();
+            try {
+                final var list = new ArrayList<>();
+                var size = 0;
+                int next;
+                while ((next = stream.read()) != Type.Tokens.TERMINATOR) {
+                    Bytes.checkEOF(next);
+                    stream.unread(next);
+                    stream.limits().checkContainerSize(size + 1L);
+                    final var child = node.element(size++);
+                    if (child == null) {
+                        stream.skipValue();
+                        continue;
+                    }
+
+                    final var value = project(stream, child);
+                    if (value != MISSING) {
+                        list.add(value);
+                    }
+                }
+                return list;
+            } finally {
+                stream.exitContainer();
+            }
+        }
+        stream.skipValue();
+        return MISSING;
+    }
+
+    private static void insert(final Node root, final String expression) {
+        final var length = expression.length();
+        var node = root;
+        var position = 0;
+        while (true) {
+            final var name = new StringBuilder();
+            var escaped = false;
+            while (position < length && expression.charAt(position) != '.' && expression.charAt(position) != '[') {
+                var c = expression.charAt(position++);
+                if (c == '\\') {
+                    if (position == length) {
+                        throw invalid(expression, position);
+                    }
+                    c = expression.charAt(position++);
+                    escaped = true;
+                }
+                name.append(c);
+            }
+
+            // Only the very first step may be an index without a key, for documents whose root is a list.
+            if (!name.isEmpty()) {
+                node = !escaped && name.length() == 1 && name.charAt(0) == '*' ? node.anyKey() : node.key(name.toString());
+            } else if (position != 0 || position == length || expression.charAt(position) != '[') {
+                throw invalid(expression, position);
+            }
+            while (position < length && expression.charAt(position) == '[') {
+                final var close = expression.indexOf(']', position);
+                if (close < 0) {
+                    throw invalid(expression, position);
+                }
+                node = node.index(parseIndex(expression, position + 1, close));
+                position = close + 1;
+            }
+
+            if (position == length) {
+                break;
+            }
+            if (expression.charAt(position) != '.' || ++position == length) {
+                throw invalid(expression, position);
+            }
+        }
+        node.terminal = true;
+    }
+
+    private static int parseIndex(final String expression, final int from, final int to) {
+        if (to - from == 1 && expression.charAt(from) == '*') {
+            return -1;
+        }
+        if (from == to) {
+            throw invalid(expression, from);
+        }
+        var index = 0;
+        for (var i = from; i < to; i++) {
+            final var c = expression.charAt(i);
+            if (c < '0' || c > '9' || index > (Integer.MAX_VALUE - (c - '0')) / 10) {
+                throw invalid(expression, i);
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    private static IllegalArgumentException invalid(final String expression, final int position) {
+        return new IllegalArgumentException("Invalid path '" + expression + "' at index " + position);
+    }
+
+    @Override
+    public String toString() {
+        return String.join(", ", expressions);
+    }
+
+    private static final class Node {
+
+        // A terminal node keeps its whole value, so anything compiled below it is never consulted.
+        private boolean terminal;
+        private Map<String, Node> named = new LinkedHashMap<>();
+        private Node anyKey;
+        private Map<Integer, Node> indexed = new HashMap<>();
+        private Node anyIndex;
+
+        // Sealed form: keys sorted by unsigned bytes as BencodeInputStream.readKey expects, names and children alongside.
+        private byte[][] keys = NO_KEYS;
+        private String[] names;
+        private Node[] children;
+        private int[] indexes;
+        private Node[] elements;
+
+        private Node key(final String name) {
+            return named.computeIfAbsent(name, n -> new Node());
+        }
+
+        private Node anyKey() {
+            if (anyKey == null) {
+                anyKey = new Node();
+            }
+            return anyKey;
+        }
+
+        private Node index(final int index) {
+            if (index < 0) {
+                if (anyIndex == null) {
+                    anyIndex = new Node();
+                }
+                return anyIndex;
+            }
+            return indexed.computeIfAbsent(index, i -> new Node());
+        }
+
+        private boolean hasKeys() {
+            return keys.length > 0 || anyKey != null;
+        }
+
+        private boolean hasIndexes() {
+            return indexes.length > 0 || anyIndex != null;
+        }
+
+        private Node element(final int index) {
+            final var slot = Arrays.binarySearch(indexes, index);
+            return slot >= 0 ? elements[slot] : anyIndex;
+        }
+
+        // Wildcards also apply to the named steps beside them, so their subtrees are folded into every sibling.
+        private void seal() {
+            if (anyKey != null) {
+                for (final var child : named.values()) {
+                    child.merge(anyKey);
+                }
+                anyKey.seal();
+            }
+            if (anyIndex != null) {
+                for (final var child : indexed.values()) {
+                    child.merge(anyIndex);
+                }
+                anyIndex.seal();
+            }
+
+            final var entries = new ArrayList<>(named.entrySet());
+            final var encoded = new byte[entries.size()][];
+            for (var i = 0; i < encoded.length; i++) {
+                encoded[i] = entries.get(i).getKey().getBytes();
+            }
+            final var order = new Integer[encoded.length];
+            for (var i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(encoded[a], encoded[b]));
+
+            keys = new byte[order.length][];
+            names = new String[order.length];
+            children = new Node[order.length];
+            for (var i = 0; i < order.length; i++) {
+                final var entry = entries.get(order[i]);
+                keys[i] = encoded[order[i]];
+                names[i] = entry.getKey();
+                children[i] = entry.getValue();
+                children[i].seal();
+            }
+            if (keys.length == 0) {
+                keys = NO_KEYS;
+            }
+
+            indexes = indexed.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            elements = new Node[indexes.length];
+            for (var i = 0; i < indexes.length; i++) {
+                elements[i] = indexed.get(indexes[i]);
+                elements[i].seal();
+            }
+            indexed = null;
+            if (anyKey == null) {
+                named = null;
+            }
+        }
+
+        private void merge(final Node other) {
+            terminal |= other.terminal;
+            for (final var entry : other.named.entrySet()) {
+                key(entry.getKey()).merge(entry.getValue());
+            }
+            if (other.anyKey != null) {
+                anyKey().merge(other.anyKey);
+            }
+            for (final var entry : other.indexed.entrySet()) {
+                index(entry.getKey()).merge(entry.getValue());
+            }
+            if (other.anyIndex != null) {
+                index(-1).merge(other.anyIndex);
+            }
+        }
+
+    }
+
+}
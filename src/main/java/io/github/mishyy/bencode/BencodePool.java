@@ -0,0 +1,76 @@
+package io.github.mishyy.bencode;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+
+public final class BencodePool {
+
+    // ArrayBlockingQueue guards itself with a ReentrantLock, so waiting virtual threads do not pin their carrier.
+    private final ArrayBlockingQueue<BencodeEncoder> encoders;
+    private final ArrayBlockingQueue<BencodeDecoder> decoders;
+    private final KeyCache keyCache;
+
+    public BencodePool(final int capacity) {
+        this(capacity, Bencode.get().keyCache());
+    }
+
+    public BencodePool(final int capacity, final KeyCache keyCache) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity <= 0");
+        }
+        this.encoders = new ArrayBlockingQueue<>(capacity);
+        this.decoders = new ArrayBlockingQueue<>(capacity);
+        this.keyCache = keyCache;
+    }
+
+    public BencodeEncoder acquireEncoder() {
+        final var encoder = encoders.poll();
+        return encoder != null ? encoder : new BencodeEncoder();
+    }
+
+    public void release(final BencodeEncoder encoder) {
+        Objects.requireNonNull(encoder, "encoder");
+        encoder.reset();
+        encoders.offer(encoder);
+    }
+
+    public BencodeDecoder acquireDecoder() {
+        final var decoder = decoders.poll();
+        return decoder != null ? decoder : new BencodeDecoder(keyCache);
+    }
+
+    public void release(final BencodeDecoder decoder) {
+        Objects.requireNonNull(decoder, "decoder");
+        // Settings are per borrower; the next one starts from the defaults like a new decoder would.
+        decoder.reset();
+        decoder.numberMode(NumberMode.LONG).limits(DecodeLimits.DEFAULT);
+        decoders.offer(decoder);
+    }
+
+    public byte[] encode(final Object object) {
+        final var encoder = acquireEncoder();
+        try {
+            return encoder.encode(object);
+        } finally {
+            release(encoder);
+        }
+    }
+
+    public Object decode(final byte[] bytes) {
+        final var decoder = acquireDecoder();
+        try {
+            return decoder.decode(bytes);
+        } finally {
+            release(decoder);
+        }
+    }
+
+    public int idleEncoders() {
+        return encoders.size();
+    }
+
+    public int idleDecoders() {
+        return decoders.size();
+    }
+
+}
@@ -0,0 +1,108 @@
+package io.github.mishyy.bencode;
+
+import jdk.jfr.FlightRecorder;
+
+// Created only while metrics are configured or the matching JFR event is enabled, so call sites pay a null check otherwise.
+final class BencodeProbe {
+
+    // jdk.jfr is optional at run time; without it no event class is ever loaded and probes only feed metrics.
+    private static final boolean JFR = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+    private final BencodeMetrics metrics;
+    private final JfrEvent event;
+    private final boolean decode;
+    private final long start;
+
+    private BencodeProbe(final BencodeMetrics metrics, final JfrEvent event, final boolean decode) {
+        this.metrics = metrics;
+        this.event = event;
+        this.decode = decode;
+        this.start = System.nanoTime();
+    }
+
+    static BencodeProbe decode(final BencodeMetrics metrics, final String operation) {
+        final var event = recording() ? JfrEvent.decode(operation) : null;
+        return metrics != null || event != null ? new BencodeProbe(metrics, event, true) : null;
+    }
+
+    static BencodeProbe encode(final BencodeMetrics metrics, final String operation) {
+        final var event = recording() ? JfrEvent.encode(operation) : null;
+        return metrics != null || event != null ? new BencodeProbe(metrics, event, false) : null;
+    }
+
+    void success(final Object value, final long bytes) {
+        final var nanos = System.nanoTime() - start;
+        final var commit = event != null && event.end();
+        if (metrics == null && !commit) {
+            return;
+        }
+
+        final var shape = BencodeShape.of(value);
+        if (metrics != null) {
+            metrics.record(decode, shape, bytes, nanos);
+        }
+        if (commit) {
+            event.success(shape, bytes);
+        }
+    }
+
+    void failure(final Throwable cause) {
+        final var nanos = System.nanoTime() - start;
+        if (metrics != null) {
+            metrics.failure(decode, cause, nanos);
+        }
+        if (event != null && event.end()) {
+            event.failure(cause);
+        }
+    }
+
+    // Loading the first event class sets up JFR's event machinery, which takes hundreds of milliseconds, so that waits
+    // until the recorder has actually been started.
+    private static boolean recording() {
+        return JFR && FlightRecorder.isInitialized();
+    }
+
+    // Separate class so that BencodeProbe itself links without jdk.jfr.
+    private static final class JfrEvent {
+
+        private final BencodeEvent event;
+
+        private JfrEvent(final BencodeEvent event, final String operation) {
+            this.event = event;
+            event.operation = operation;
+            event.begin();
+        }
+
+        // The usual JFR pattern: an event that is not enabled is a plain allocation the JIT can drop.
+        static JfrEvent decode(final String operation) {
+            final var event = new BencodeDecodeEvent();
+            return event.isEnabled() ? new JfrEvent(event, operation) : null;
+        }
+
+        static JfrEvent encode(final String operation) {
+            final var event = new BencodeEncodeEvent();
+            return event.isEnabled() ? new JfrEvent(event, operation) : null;
+        }
+
+        boolean end() {
+            event.end();
+            return event.shouldCommit();
+        }
+
+        void success(final BencodeShape shape, final long bytes) {
+            event.type = shape.kindName();
+            event.bytes = bytes;
+            event.values = shape.valueCount();
+            event.maxDepth = shape.maxDepth;
+            event.largestString = shape.largestString;
+            event.commit();
+        }
+
+        void failure(final Throwable cause) {
+            event.failure = cause.getClass().getName();
+            event.commit();
+        }
+
+    }
+
+}
@@ -0,0 +1,182 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import io.github.mishyy.bencode.util.Bytes;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidObjectException;
+import java.util.Arrays;
+import java.util.Objects;
+
+public final class BencodeReader implements Closeable {
+
+    private static final byte LIST = 1;
+    private static final byte DICTIONARY_KEY = 2;
+    private static final byte DICTIONARY_VALUE = 3;
+
+    private final BencodeInputStream stream;
+    private byte[] scopes = new byte[32];
+    private int depth;
+
+    public BencodeReader(final InputStream in) {
+        this(in instanceof BencodeInputStream stream ? stream : new BencodeInputStream(in));
+    }
+
+    public BencodeReader(final BencodeInputStream stream) {
+        this.stream = Objects.requireNonNull(stream, "stream");
+    }
+
+    public Token peek() throws IOException {
+        final var token = stream.peek();
+        return switch (token) {
+            case -1 -> Token.EOF;
+            case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> Token.STRING;
+            case Type.Tokens.NUMBER -> Token.NUMBER;
+            case Type.Tokens.LIST -> Token.LIST;
+            case Type.Tokens.DICTIONARY -> Token.DICTIONARY;
+            case Type.Tokens.TERMINATOR -> Token.END;
+            default -> throw unknown(token);
+        };
+    }
+
+    public boolean hasNext() throws IOException {
+        final var token = peek();
+        return token != Token.END && token != Token.EOF;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public void beginList() throws IOException {
+        beforeValue();
+        expect(Type.Tokens.LIST);
+        push(LIST);
+    }
+
+    public void endList() throws IOException {
+        end(LIST);
+    }
+
+    public void beginDictionary() throws IOException {
+        beforeValue();
+        expect(Type.Tokens.DICTIONARY);
+        push(DICTIONARY_KEY);
+    }
+
+    public void endDictionary() throws IOException {
+        end(DICTIONARY_KEY);
+    }
+
+    public String nextKey() throws IOException {
+        if (depth == 0 || scopes[depth - 1] != DICTIONARY_KEY) {
+            throw new IllegalStateException("Not positioned at a dictionary key");
+        }
+        final var key = stream.readKey();
+        scopes[depth - 1] = DICTIONARY_VALUE;
+        return key;
+    }
+
+    public long nextLong() throws IOException {
+        beforeValue();
+        final var value = stream.readLong();
+        afterValue();
+        return value;
+    }
+
+    public byte[] nextBytes() throws IOException {
+        beforeValue();
+        final var bytes = readBytes();
+        afterValue();
+        return bytes;
+    }
+
+    public String nextString() throws IOException {
+        return new String(nextBytes());
+    }
+
+    public void skipValue() throws IOException {
+        if (peek() == Token.END) {
+            throw new IllegalStateException("No value to skip");
+        }
+        if (depth > 0 && scopes[depth - 1] == DICTIONARY_KEY) {
+            stream.skipNBytes(stream.readLength());
+            scopes[depth - 1] = DICTIONARY_VALUE;
+        }
+
+        stream.skipValue();
+        afterValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stream.close();
+    }
+
+    private byte[] readBytes() throws IOException {
+        final var length = stream.readLength();
+        final var bytes = stream.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException();
+        }
+        return bytes;
+    }
+
+    private void expect(final int expected) throws IOException {
+        final var token = stream.read();
+        Bytes.checkEOF(token);
+        if (token != expected) {
+            stream.unread(token);
+            throw new InvalidObjectException("Unexpected token '" + new String(Character.toChars(token)) + "' ");
+        }
+    }
+
+    private void end(final byte scope) throws IOException {
+        if (depth == 0 || scopes[depth - 1] != scope) {
+            throw new IllegalStateException("Not positioned at the end of a " + (scope == LIST ? "list" : "dictionary"));
+        }
+        expect(Type.Tokens.TERMINATOR);
+        stream.exitContainer();
+        depth--;
+        afterValue();
+    }
+
+    private void push(final byte scope) {
+        stream.enterContainer();
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth << 1);
+        }
+        scopes[depth++] = scope;
+    }
+
+    private void beforeValue() {
+        if (depth > 0 && scopes[depth - 1] == DICTIONARY_KEY) {
+            throw new IllegalStateException("Expected a dictionary key");
+        }
+    }
+
+    private void afterValue() {
+        if (depth > 0 && scopes[depth - 1] == DICTIONARY_VALUE) {
+            scopes[depth - 1] = DICTIONARY_KEY;
+        }
+    }
+
+    private static InvalidObjectException unknown(final int token) {
+        return new InvalidObjectException("Unknown token '" + new String(Character.toChars(token)) + "'");
+    }
+
+    public enum Token {
+
+        STRING,
+        NUMBER,
+        LIST,
+        DICTIONARY,
+        END,
+        EOF
+
+    }
+
+}
@@ -0,0 +1,27 @@
+package io.github.mishyy.bencode;
+
+import java.util.Objects;
+
+public record BencodeResult<T>(T value, BencodeException error) {
+
+    public static <T> BencodeResult<T> success(final T value) {
+        return new BencodeResult<>(value, null);
+    }
+
+    public static <T> BencodeResult<T> failure(final BencodeException error) {
+        Objects.requireNonNull(error, "error");
+        return new BencodeResult<>(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public T get() {
+        if (error != null) {
+            throw error;
+        }
+        return value;
+    }
+
+}
@@ -0,0 +1,139 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.util.Bytes;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+final class BencodeShape {
+
+    static final int BYTES = 0;
+    static final int STRING = 1;
+    static final int NUMBER = 2;
+    static final int LIST = 3;
+    static final int DICTIONARY = 4;
+
+    private static final String[] NAMES = { "bytes", "string", "number", "list", "dictionary" };
+
+    final long[] values = new long[NAMES.length];
+    final int kind;
+    int maxDepth;
+    long largestString;
+
+    private BencodeShape(final Object value) {
+        this.kind = walk(value);
+    }
+
+    static BencodeShape of(final Object value) {
+        return new BencodeShape(value);
+    }
+
+    String kindName() {
+        return NAMES[kind];
+    }
+
+    long valueCount() {
+        var total = 0L;
+        for (final var count : values) {
+            total += count;
+        }
+        return total;
+    }
+
+    // Open containers sit on an explicit stack, so a value of any depth is measured without recursing.
+    private int walk(final Object root) {
+        final var kind = count(root, 1);
+        var open = new Iterator<?>[16];
+        var top = push(open, 0, root);
+        while (top > 0) {
+            final var iterator = open[top - 1];
+            if (!iterator.hasNext()) {
+                open[--top] = null;
+                continue;
+            }
+
+            final var depth = top + 1;
+            var next = iterator.next();
+            if (iterator instanceof EntryIterator) {
+                final var entry = (Map.Entry<?, ?>) next;
+                count(entry.getKey(), depth);
+                next = entry.getValue();
+            }
+            count(next, depth);
+            if (top == open.length) {
+                open = Arrays.copyOf(open, top << 1);
+            }
+            top = push(open, top, next);
+        }
+        return kind;
+    }
+
+    private static int push(final Iterator<?>[] open, final int top, final Object value) {
+        switch (value) {
+            case Map<?, ?> map -> open[top] = new EntryIterator(map.entrySet().iterator());
+            // Other iterables may be single-use and have already been drained by encoding, so only the list counts.
+            case Collection<?> collection -> open[top] = collection.iterator();
+            case null, default -> {
+                return top;
+            }
+        }
+        return top + 1;
+    }
+
+    private int count(final Object value, final int depth) {
+        maxDepth = Math.max(maxDepth, depth);
+
+        final int kind;
+        switch (value) {
+            case byte[] bytes -> {
+                kind = BYTES;
+                string(bytes.length);
+            }
+            case ByteString byteString -> {
+                kind = BYTES;
+                string(byteString.length());
+            }
+            case ByteBuffer buffer -> {
+                kind = BYTES;
+                string(buffer.remaining());
+            }
+            case Number ignored -> kind = NUMBER;
+            case Map<?, ?> ignored -> kind = DICTIONARY;
+            case Iterable<?> ignored -> kind = LIST;
+            case null -> kind = STRING;
+            default -> {
+                if (BencodeBinding.isBound(value.getClass())) {
+                    kind = DICTIONARY;
+                } else {
+                    kind = STRING;
+                    string(Bytes.encodedLength(value.toString()));
+                }
+            }
+        }
+        values[kind]++;
+        return kind;
+    }
+
+    private void string(final long length) {
+        largestString = Math.max(largestString, length);
+    }
+
+    // Marks a dictionary's entries, whose keys and values are counted as separate values.
+    private record EntryIterator(Iterator<? extends Map.Entry<?, ?>> entries) implements Iterator<Map.Entry<?, ?>> {
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        public Map.Entry<?, ?> next() {
+            return entries.next();
+        }
+
+    }
+
+}
@@ -0,0 +1,268 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serial;
+import java.util.Arrays;
+
+// Scans one value without building it. Array input is checked in place; stream input only copies dictionary keys,
+// and only in canonical mode where each key has to be compared with the previous one.
+final class BencodeValidator {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int EOF = -1;
+    private static final byte LIST = 1;
+    private static final byte DICTIONARY_KEY = 2;
+    private static final byte DICTIONARY_VALUE = 3;
+
+    private final InputStream in;
+    private final boolean canonical;
+    private final int maxDepth;
+    private final byte[] buffer;
+    private final int start;
+    private int position;
+    private int limit;
+    private long consumed;
+
+    private byte[] scopes;
+    private int[] keyStarts;
+    private int[] keyLengths;
+    private byte[] keys;
+
+    private BencodeValidator(final InputStream in, final byte[] buffer, final int start, final int limit, final ValidationMode mode,
+                             final DecodeLimits limits) {
+        this.in = in;
+        this.canonical = mode == ValidationMode.CANONICAL;
+        this.maxDepth = limits.maxDepth();
+        this.buffer = buffer;
+        this.start = start;
+        this.position = start;
+        this.limit = limit;
+    }
+
+    static ValidationResult validate(final byte[] bytes, final ValidationMode mode, final DecodeLimits limits) throws IOException {
+        return new BencodeValidator(null, bytes, 0, bytes.length, mode, limits).run();
+    }
+
+    static ValidationResult validate(final InputStream in, final ValidationMode mode, final DecodeLimits limits) throws IOException {
+        return new BencodeValidator(in, new byte[BUFFER_SIZE], 0, 0, mode, limits).run();
+    }
+
+    private ValidationResult run() throws IOException {
+        try {
+            value();
+            if (canonical && read() != EOF) {
+                throw new Failure(offset() - 1, "Trailing data after value");
+            }
+            return ValidationResult.VALID;
+        } catch (final Failure failure) {
+            return ValidationResult.invalid(failure.offset, failure.getMessage());
+        }
+    }
+
+    private void value() throws IOException, Failure {
+        var depth = 0;
+        do {
+            final var offset = offset();
+            final var token = read();
+            if (depth > 0 && scopes[depth - 1] == DICTIONARY_KEY && token != Type.Tokens.TERMINATOR) {
+                if (token < '0' || token > '9') {
+                    throw token == EOF ? end() : new Failure(offset, "Dictionary key is not a byte string");
+                }
+                key(depth - 1, token, offset);
+                scopes[depth - 1] = DICTIONARY_VALUE;
+                continue;
+            }
+
+            switch (token) {
+                case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> skip(length(token));
+                case Type.Tokens.NUMBER -> integer();
+                case Type.Tokens.LIST, Type.Tokens.DICTIONARY -> {
+                    if (depth == maxDepth) {
+                        throw new Failure(offset, "Maximum depth of " + maxDepth + " exceeded");
+                    }
+                    push(depth++, token == Type.Tokens.LIST ? LIST : DICTIONARY_KEY);
+                    continue;
+                }
+                case Type.Tokens.TERMINATOR -> {
+                    if (depth == 0 || scopes[depth - 1] == DICTIONARY_VALUE) {
+                        throw new Failure(offset, "Unexpected token 'e'");
+                    }
+                    depth--;
+                }
+                case EOF -> throw end();
+                default -> throw new Failure(offset, "Unknown token '" + new String(Character.toChars(token)) + "'");
+            }
+            if (depth > 0 && scopes[depth - 1] == DICTIONARY_VALUE) {
+                scopes[depth - 1] = DICTIONARY_KEY;
+            }
+        } while (depth > 0);
+    }
+
+    private void integer() throws IOException, Failure {
+        var token = read();
+        final var negative = token == '-';
+        if (negative) {
+            token = read();
+        }
+
+        final var first = offset() - 1;
+        final var leading = token;
+        var digits = 0;
+        while (token >= '0' && token <= '9') {
+            digits++;
+            token = read();
+        }
+        if (token != Type.Tokens.TERMINATOR) {
+            throw token == EOF ? end() : new Failure(offset() - 1, "Unexpected token '" + new String(Character.toChars(token)) + "' in integer");
+        }
+        if (digits == 0) {
+            throw new Failure(first, "Integer has no digits");
+        }
+        if (canonical && leading == '0' && (negative || digits > 1)) {
+            throw new Failure(first, negative ? "Negative zero or leading zero in integer" : "Leading zero in integer");
+        }
+    }
+
+    private int length(final int first) throws IOException, Failure {
+        final var offset = offset() - 1;
+        var length = (long) (first - '0');
+        int token;
+        while ((token = read()) != Type.Tokens.SEPARATOR) {
+            if (token < '0' || token > '9') {
+                throw token == EOF ? end() : new Failure(offset() - 1, "Unexpected token '" + new String(Character.toChars(token)) + "' in length");
+            }
+            if (canonical && first == '0') {
+                throw new Failure(offset, "Leading zero in length");
+            }
+            length = length * 10 + (token - '0');
+            if (length > Integer.MAX_VALUE) {
+                throw new Failure(offset, "Length prefix exceeds " + Integer.MAX_VALUE);
+            }
+        }
+        return (int) length;
+    }
+
+    private void key(final int level, final int first, final long offset) throws IOException, Failure {
+        final var length = length(first);
+        if (!canonical) {
+            skip(length);
+            return;
+        }
+
+        final var previous = keyLengths[level];
+        if (in == null) {
+            // Keys stay in the input array, so only their positions are remembered.
+            final var keyStart = position;
+            skip(length);
+            if (previous >= 0) {
+                order(Arrays.compareUnsigned(buffer, keyStarts[level], keyStarts[level] + previous, buffer, keyStart, keyStart + length), offset);
+            }
+            keyStarts[level] = keyStart;
+        } else {
+            // Keys of enclosing dictionaries are kept below this one, so the copy never overlaps an open level.
+            final var base = keyStarts[level];
+            final var copy = base + Math.max(previous, 0);
+            if (keys == null || keys.length < copy + length) {
+                keys = Arrays.copyOf(keys == null ? new byte[0] : keys, Math.max(copy + length, 64) * 2);
+            }
+            var filled = 0;
+            while (filled < length) {
+                if (position == limit && fill() <= 0) {
+                    throw end();
+                }
+                final var count = Math.min(limit - position, length - filled);
+                System.arraycopy(buffer, position, keys, copy + filled, count);
+                position += count;
+                filled += count;
+            }
+            if (previous >= 0) {
+                order(Arrays.compareUnsigned(keys, base, base + previous, keys, copy, copy + length), offset);
+            }
+            System.arraycopy(keys, copy, keys, base, length);
+        }
+        keyLengths[level] = length;
+    }
+
+    private static void order(final int comparison, final long offset) throws Failure {
+        if (comparison >= 0) {
+            throw new Failure(offset, comparison == 0 ? "Duplicate dictionary key" : "Dictionary keys out of order");
+        }
+    }
+
+    private void push(final int depth, final byte scope) {
+        if (scopes == null) {
+            scopes = new byte[16];
+            keyStarts = new int[16];
+            keyLengths = new int[16];
+        } else if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth << 1);
+            keyStarts = Arrays.copyOf(keyStarts, depth << 1);
+            keyLengths = Arrays.copyOf(keyLengths, depth << 1);
+        }
+        scopes[depth] = scope;
+        keyLengths[depth] = -1;
+        if (in != null) {
+            keyStarts[depth] = depth == 0 ? 0 : keyStarts[depth - 1] + Math.max(keyLengths[depth - 1], 0);
+        }
+    }
+
+    private void skip(final int length) throws IOException, Failure {
+        var remaining = length;
+        while (remaining > 0) {
+            if (position == limit && fill() <= 0) {
+                throw end();
+            }
+            final var count = Math.min(limit - position, remaining);
+            position += count;
+            remaining -= count;
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit && fill() <= 0) {
+            return EOF;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private int fill() throws IOException {
+        if (in == null) {
+            return EOF;
+        }
+        consumed += limit - start;
+        position = start;
+        limit = start;
+
+        final var count = in.read(buffer, 0, buffer.length);
+        if (count > 0) {
+            limit = count;
+        }
+        return count;
+    }
+
+    private long offset() {
+        return consumed + position - start;
+    }
+
+    private Failure end() {
+        return new Failure(offset(), "Unexpected end of input");
+    }
+
+    private static final class Failure extends Exception {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final long offset;
+
+        private Failure(final long offset, final String message) {
+            super(message, null, false, false);
+            this.offset = offset;
+        }
+
+    }
+
+}
@@ -0,0 +1,27 @@
+package io.github.mishyy.bencode;
+
+// Receives the tokens of a value in document order; the arrays given to onBytes and onKey are only valid during the call.
+public interface BencodeVisitor {
+
+    default void onInteger(final long value) {
+    }
+
+    default void onBytes(final byte[] bytes, final int offset, final int length) {
+    }
+
+    default void onListStart() {
+    }
+
+    default void onListEnd() {
+    }
+
+    default void onDictionaryStart() {
+    }
+
+    default void onKey(final byte[] bytes, final int offset, final int length) {
+    }
+
+    default void onDictionaryEnd() {
+    }
+
+}
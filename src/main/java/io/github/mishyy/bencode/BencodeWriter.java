@@ -0,0 +1,212 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import io.github.mishyy.bencode.util.Bytes;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+// Writes one value token by token, so containers of any size pass through a fixed buffer instead of being encoded in
+// memory first. Nesting is tracked as it goes; dictionary keys have to arrive in ascending raw byte order.
+public final class BencodeWriter implements Closeable, Flushable {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+    private static final byte LIST = 1;
+    private static final byte DICTIONARY_KEY = 2;
+    private static final byte DICTIONARY_VALUE = 3;
+
+    private final BencodeOutputStream stream;
+    private byte[] scopes = new byte[16];
+    private ByteString[] keys = new ByteString[16];
+    private int depth;
+    private boolean complete;
+
+    public BencodeWriter(final OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public BencodeWriter(final OutputStream out, final int size) {
+        Objects.requireNonNull(out, "out");
+        this.stream = new BencodeOutputStream(new BufferedOutputStream(out, size));
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    public BencodeWriter beginList() throws IOException {
+        open(LIST);
+        stream.write(Type.Tokens.LIST);
+        return this;
+    }
+
+    public BencodeWriter beginDictionary() throws IOException {
+        open(DICTIONARY_KEY);
+        stream.write(Type.Tokens.DICTIONARY);
+        return this;
+    }
+
+    public BencodeWriter key(final String key) throws IOException {
+        Objects.requireNonNull(key, "key");
+        return key(ByteString.of(key));
+    }
+
+    public BencodeWriter key(final byte[] key) throws IOException {
+        Objects.requireNonNull(key, "key");
+        return key(ByteString.copyOf(key));
+    }
+
+    public BencodeWriter key(final ByteString key) throws IOException {
+        Objects.requireNonNull(key, "key");
+        if (depth == 0 || scopes[depth - 1] != DICTIONARY_KEY) {
+            throw new IllegalStateException(depth == 0 || scopes[depth - 1] == LIST ? "Not inside a dictionary" : "Key written twice without a value");
+        }
+
+        final var previous = keys[depth - 1];
+        if (previous != null && previous.compareTo(key) >= 0) {
+            throw new InvalidObjectException(previous.equals(key)
+                    ? "Duplicate dictionary key '" + key + "'"
+                    : "Dictionary key '" + key + "' written after '" + previous + "'");
+        }
+        keys[depth - 1] = key;
+        scopes[depth - 1] = DICTIONARY_VALUE;
+
+        Bytes.writeDecimal(stream, key.length());
+        stream.write(Type.Tokens.SEPARATOR);
+        key.writeTo(stream);
+        return this;
+    }
+
+    public BencodeWriter value(final long value) throws IOException {
+        beforeValue();
+        stream.write(Type.Tokens.NUMBER);
+        Bytes.writeDecimal(stream, value);
+        stream.write(Type.Tokens.TERMINATOR);
+        return afterValue();
+    }
+
+    public BencodeWriter value(final byte[] value) throws IOException {
+        Objects.requireNonNull(value, "value");
+        beforeValue();
+        stream.writeString(value);
+        return afterValue();
+    }
+
+    public BencodeWriter value(final String value) throws IOException {
+        Objects.requireNonNull(value, "value");
+        beforeValue();
+        stream.writeString(value);
+        return afterValue();
+    }
+
+    // Anything Bencode.encode accepts; containers given here are encoded whole, so large ones belong in begin/end.
+    public BencodeWriter value(final Object value) throws IOException {
+        Objects.requireNonNull(value, "value");
+        beforeValue();
+        stream.write(Type.UNKNOWN, value);
+        return afterValue();
+    }
+
+    public BencodeWriter end() throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("No open list or dictionary");
+        }
+        if (scopes[depth - 1] == DICTIONARY_VALUE) {
+            throw new IllegalStateException("Key '" + keys[depth - 1] + "' has no value");
+        }
+
+        keys[--depth] = null;
+        stream.write(Type.Tokens.TERMINATOR);
+        return afterValue();
+    }
+
+    // The source is drained as it is written; only one element is held at a time.
+    public BencodeWriter list(final Iterator<?> values) throws IOException {
+        Objects.requireNonNull(values, "values");
+        beginList();
+        while (values.hasNext()) {
+            value(values.next());
+        }
+        return end();
+    }
+
+    public BencodeWriter list(final Stream<?> values) throws IOException {
+        Objects.requireNonNull(values, "values");
+        return list(values.iterator());
+    }
+
+    // Entries have to be sorted already; keys are converted the way Map keys are when a whole dictionary is encoded.
+    public BencodeWriter dictionary(final Iterator<? extends Map.Entry<?, ?>> entries) throws IOException {
+        Objects.requireNonNull(entries, "entries");
+        beginDictionary();
+        while (entries.hasNext()) {
+            final var entry = entries.next();
+            switch (entry.getKey()) {
+                case ByteString key -> key(key);
+                case byte[] key -> key(key);
+                case null -> throw new NullPointerException("key");
+                default -> key(entry.getKey().toString());
+            }
+            value(entry.getValue());
+        }
+        return end();
+    }
+
+    public BencodeWriter dictionary(final Stream<? extends Map.Entry<?, ?>> entries) throws IOException {
+        Objects.requireNonNull(entries, "entries");
+        return dictionary(entries.iterator());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        stream.flush();
+    }
+
+    // The underlying stream is closed either way; an unfinished value is reported afterwards.
+    @Override
+    public void close() throws IOException {
+        stream.flush();
+        stream.close();
+        if (depth > 0) {
+            throw new IllegalStateException(depth + " list(s) or dictionaries left open");
+        }
+    }
+
+    private void open(final byte scope) {
+        beforeValue();
+        if (depth == scopes.length) {
+            scopes = Arrays.copyOf(scopes, depth << 1);
+            keys = Arrays.copyOf(keys, depth << 1);
+        }
+        scopes[depth++] = scope;
+    }
+
+    private void beforeValue() {
+        if (depth == 0) {
+            if (complete) {
+                throw new IllegalStateException("A complete value has already been written");
+            }
+        } else if (scopes[depth - 1] == DICTIONARY_KEY) {
+            throw new IllegalStateException("Dictionary value written without a key");
+        }
+    }
+
+    private BencodeWriter afterValue() {
+        if (depth == 0) {
+            complete = true;
+        } else if (scopes[depth - 1] == DICTIONARY_VALUE) {
+            scopes[depth - 1] = DICTIONARY_KEY;
+        }
+        return this;
+    }
+
+}
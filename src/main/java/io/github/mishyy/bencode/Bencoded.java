@@ -0,0 +1,14 @@
+package io.github.mishyy.bencode;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a record for the bencode-processor module, which generates a reflection-free <Name>Codec beside it.
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Bencoded {
+}
@@ -0,0 +1,132 @@
+package io.github.mishyy.bencode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+public final class ByteString implements Comparable<ByteString> {
+
+    public static final ByteString EMPTY = new ByteString(new byte[0], 0, 0);
+
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+    private int hash;
+    private boolean hashIsZero;
+    private String string;
+
+    private ByteString(final byte[] bytes, final int offset, final int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public static ByteString of(final String string) {
+        Objects.requireNonNull(string, "string");
+        final var bytes = string.getBytes();
+        final var byteString = new ByteString(bytes, 0, bytes.length);
+        byteString.string = string;
+        return byteString;
+    }
+
+    public static ByteString copyOf(final byte[] bytes) {
+        Objects.requireNonNull(bytes, "bytes");
+        return new ByteString(bytes.clone(), 0, bytes.length);
+    }
+
+    public static ByteString copyOf(final byte[] bytes, final int offset, final int length) {
+        Objects.requireNonNull(bytes, "bytes");
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        return new ByteString(Arrays.copyOfRange(bytes, offset, offset + length), 0, length);
+    }
+
+    // Shares the array; the caller must not modify the range afterwards.
+    public static ByteString wrap(final byte[] bytes, final int offset, final int length) {
+        Objects.requireNonNull(bytes, "bytes");
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        return new ByteString(bytes, offset, length);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public byte byteAt(final int index) {
+        Objects.checkIndex(index, length);
+        return bytes[offset + index];
+    }
+
+    public ByteString substring(final int from, final int to) {
+        Objects.checkFromToIndex(from, to, length);
+        return from == 0 && to == length ? this : new ByteString(bytes, offset + from, to - from);
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(bytes, offset, offset + length);
+    }
+
+    public ByteBuffer asReadOnlyBuffer() {
+        return ByteBuffer.wrap(bytes, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    public void writeTo(final OutputStream out) throws IOException {
+        out.write(bytes, offset, length);
+    }
+
+    public boolean contentEquals(final byte[] other) {
+        return Arrays.equals(bytes, offset, offset + length, other, 0, other.length);
+    }
+
+    @Override
+    public int compareTo(final ByteString other) {
+        return Arrays.compareUnsigned(bytes, offset, offset + length, other.bytes, other.offset, other.offset + other.length);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ByteString other) || length != other.length) {
+            return false;
+        }
+        if (hash != 0 && other.hash != 0 && hash != other.hash) {
+            return false;
+        }
+        return Arrays.equals(bytes, offset, offset + length, other.bytes, other.offset, other.offset + other.length);
+    }
+
+    @Override
+    public int hashCode() {
+        var h = hash;
+        if (h == 0 && !hashIsZero) {
+            h = 1;
+            for (var i = offset; i < offset + length; i++) {
+                h = 31 * h + bytes[i];
+            }
+            if (h == 0) {
+                hashIsZero = true;
+            } else {
+                hash = h;
+            }
+        }
+        return h;
+    }
+
+    @Override
+    public String toString() {
+        var s = string;
+        if (s == null) {
+            s = new String(bytes, offset, length);
+            string = s;
+        }
+        return s;
+    }
+
+}
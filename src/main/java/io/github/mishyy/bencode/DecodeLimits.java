@@ -0,0 +1,97 @@
+package io.github.mishyy.bencode;
+
+public record DecodeLimits(int maxDepth, int maxStringLength, int maxContainerSize, long maxTotalBytes, int maxIntegerDigits) {
+
+    public static final DecodeLimits DEFAULT = new DecodeLimits(512, 64 << 20, 1 << 20, 1L << 30, 1024);
+    public static final DecodeLimits UNLIMITED = new DecodeLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    public DecodeLimits {
+        if (maxDepth <= 0) {
+            throw new IllegalArgumentException("maxDepth <= 0");
+        }
+        if (maxStringLength < 0) {
+            throw new IllegalArgumentException("maxStringLength < 0");
+        }
+        if (maxContainerSize < 0) {
+            throw new IllegalArgumentException("maxContainerSize < 0");
+        }
+        if (maxTotalBytes <= 0) {
+            throw new IllegalArgumentException("maxTotalBytes <= 0");
+        }
+        if (maxIntegerDigits <= 0) {
+            throw new IllegalArgumentException("maxIntegerDigits <= 0");
+        }
+    }
+
+    public DecodeLimits withMaxDepth(final int maxDepth) {
+        return new DecodeLimits(maxDepth, maxStringLength, maxContainerSize, maxTotalBytes, maxIntegerDigits);
+    }
+
+    public DecodeLimits withMaxStringLength(final int maxStringLength) {
+        return new DecodeLimits(maxDepth, maxStringLength, maxContainerSize, maxTotalBytes, maxIntegerDigits);
+    }
+
+    public DecodeLimits withMaxContainerSize(final int maxContainerSize) {
+        return new DecodeLimits(maxDepth, maxStringLength, maxContainerSize, maxTotalBytes, maxIntegerDigits);
+    }
+
+    public DecodeLimits withMaxTotalBytes(final long maxTotalBytes) {
+        return new DecodeLimits(maxDepth, maxStringLength, maxContainerSize, maxTotalBytes, maxIntegerDigits);
+    }
+
+    public DecodeLimits withMaxIntegerDigits(final int maxIntegerDigits) {
+        return new DecodeLimits(maxDepth, maxStringLength, maxContainerSize, maxTotalBytes, maxIntegerDigits);
+    }
+
+    public void checkDepth(final int depth) {
+        if (depth > maxDepth) {
+            throw new BencodeLimitException(Limit.DEPTH, depth, maxDepth);
+        }
+    }
+
+    public void checkStringLength(final long length) {
+        if (length > maxStringLength) {
+            throw new BencodeLimitException(Limit.STRING_LENGTH, length, maxStringLength);
+        }
+    }
+
+    public void checkContainerSize(final long size) {
+        if (size > maxContainerSize) {
+            throw new BencodeLimitException(Limit.CONTAINER_SIZE, size, maxContainerSize);
+        }
+    }
+
+    public void checkTotalBytes(final long bytes) {
+        if (bytes > maxTotalBytes) {
+            throw new BencodeLimitException(Limit.TOTAL_BYTES, bytes, maxTotalBytes);
+        }
+    }
+
+    public void checkIntegerDigits(final long digits) {
+        if (digits > maxIntegerDigits) {
+            throw new BencodeLimitException(Limit.INTEGER_DIGITS, digits, maxIntegerDigits);
+        }
+    }
+
+    public enum Limit {
+
+        DEPTH("depth"),
+        STRING_LENGTH("byte string length"),
+        CONTAINER_SIZE("container size"),
+        TOTAL_BYTES("total size"),
+        INTEGER_DIGITS("integer digits");
+
+        private final String description;
+
+        Limit(final String description) {
+            this.description = description;
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+
+    }
+
+}
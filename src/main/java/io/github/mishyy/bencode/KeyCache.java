@@ -0,0 +1,118 @@
+package io.github.mishyy.bencode;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class KeyCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_MAX_KEY_LENGTH = 64;
+
+    public static final List<String> WELL_KNOWN_KEYS = List.of(
+            // Metainfo
+            "announce", "announce-list", "comment", "created by", "creation date", "encoding", "info", "files",
+            "length", "md5sum", "name", "path", "piece length", "pieces", "private", "url-list", "httpseeds",
+            "nodes", "meta version", "file tree", "piece layers", "pieces root",
+            // Tracker announce and scrape
+            "complete", "incomplete", "downloaded", "interval", "min interval", "peers", "peers6", "peer id",
+            "ip", "port", "tracker id", "failure reason", "warning message", "flags",
+            // KRPC and DHT
+            "t", "y", "q", "r", "e", "a", "v", "id", "target", "info_hash", "token", "values", "nodes6",
+            "implied_port", "want", "ro",
+            // Extension protocol and fast resume
+            "m", "p", "reqq", "yourip", "ipv4", "ipv6", "metadata_size", "msg_type", "piece", "total_size",
+            "ut_metadata", "ut_pex", "added", "dropped", "added.f", "file-format", "file-version",
+            "info-hash", "blocks per piece", "slots", "trackers", "mapped_files", "file sizes",
+            "allocation", "save_path", "paused", "auto_managed", "seed_mode", "upload_rate_limit",
+            "download_rate_limit", "max_connections", "max_uploads", "total_uploaded", "total_downloaded",
+            "active_time", "seeding_time", "finished_time", "added_time", "completed_time", "last_seen_complete"
+    );
+
+    private final Entry[] table;
+    private final int mask;
+    private final int maxKeyLength;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public KeyCache() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_KEY_LENGTH, WELL_KNOWN_KEYS);
+    }
+
+    public KeyCache(final int capacity, final int maxKeyLength, final Collection<String> seeds) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity <= 0");
+        }
+        if (maxKeyLength < 0) {
+            throw new IllegalArgumentException("maxKeyLength < 0");
+        }
+        Objects.requireNonNull(seeds, "seeds");
+
+        final var size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.table = new Entry[Math.min(size, 1 << 30)];
+        this.mask = table.length - 1;
+        this.maxKeyLength = maxKeyLength;
+
+        for (final var seed : seeds) {
+            final var bytes = seed.getBytes();
+            final var index = hash(bytes, 0, bytes.length) & mask;
+            if (table[index] == null) {
+                table[index] = new Entry(bytes, seed, true);
+            }
+        }
+    }
+
+    public String intern(final byte[] bytes, final int offset, final int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        if (length > maxKeyLength) {
+            misses.increment();
+            return new String(bytes, offset, length);
+        }
+
+        // Entries are immutable, so a racing reader sees either the old entry or a fully built new one.
+        final var index = hash(bytes, offset, length) & mask;
+        final var entry = table[index];
+        if (entry != null && Arrays.equals(entry.bytes, 0, entry.bytes.length, bytes, offset, offset + length)) {
+            hits.increment();
+            return entry.string;
+        }
+
+        misses.increment();
+        final var string = new String(bytes, offset, length);
+        if (entry == null || !entry.pinned) {
+            table[index] = new Entry(Arrays.copyOfRange(bytes, offset, offset + length), string, false);
+        }
+        return string;
+    }
+
+    public int maxKeyLength() {
+        return maxKeyLength;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+    }
+
+    private static int hash(final byte[] bytes, final int offset, final int length) {
+        var hash = 1;
+        for (var i = offset; i < offset + length; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private record Entry(byte[] bytes, String string, boolean pinned) {
+    }
+
+}
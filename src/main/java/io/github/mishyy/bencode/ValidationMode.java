@@ -0,0 +1,8 @@
+package io.github.mishyy.bencode;
+
+public enum ValidationMode {
+
+    WELL_FORMED,
+    CANONICAL
+
+}
@@ -0,0 +1,11 @@
+package io.github.mishyy.bencode;
+
+public record ValidationResult(boolean valid, long offset, String reason) {
+
+    public static final ValidationResult VALID = new ValidationResult(true, -1, null);
+
+    static ValidationResult invalid(final long offset, final String reason) {
+        return new ValidationResult(false, offset, reason);
+    }
+
+}
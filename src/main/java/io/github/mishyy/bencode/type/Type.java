@@ -2,6 +2,7 @@ package io.github.mishyy.bencode.type;
 
 import io.github.mishyy.Tokens.type.impl.DictionaryType;
 import io.github.mishyy.bencode.BencodeInputStream;
+import io.github.mishyy.bencode.BencodeOutputStream;
 import io.github.mishyy.bencode.type.impl.*;
 
 import java.io.IOException;
@@ -23,7 +24,10 @@ public interface Type<T> extends TypeValidator, TypeDecoder<T>, TypeEncoder<T> {
     T decode(final BencodeInputStream stream) throws IOException;
 
     @Override
-    byte[] encode(final T t) throws IOException;
+    void encode(final T t, final BencodeOutputStream stream) throws IOException;
+
+    @Override
+    long encodedSize(final T t) throws IOException;
 
     interface Tokens {
 
@@ -1,9 +1,27 @@
 package io.github.mishyy.bencode.type;
 
+import io.github.mishyy.bencode.BencodeOutputStream;
+
 import java.io.IOException;
 
 public interface TypeEncoder<T> {
 
-    byte[] encode(final T t) throws IOException;
+    void encode(final T t, final BencodeOutputStream stream) throws IOException;
+
+    // Exact number of bytes encode would produce, or -1 when that cannot be known without encoding.
+    default long encodedSize(final T t) throws IOException {
+        return -1;
+    }
+
+    default byte[] encode(final T t) throws IOException {
+        final var size = encodedSize(t);
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Encoded size " + size + " exceeds the maximum array size");
+        }
+
+        final var stream = size < 0 ? new BencodeOutputStream() : new BencodeOutputStream((int) size);
+        stream.write(this, t);
+        return stream.toByteArray();
+    }
 
 }
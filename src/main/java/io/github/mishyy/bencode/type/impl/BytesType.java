@@ -1,12 +1,14 @@
 package io.github.mishyy.bencode.type.impl;
 
 import io.github.mishyy.bencode.BencodeInputStream;
+import io.github.mishyy.bencode.BencodeOutputStream;
 import io.github.mishyy.bencode.type.Type;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 
+import static io.github.mishyy.bencode.util.Bytes.stringSize;
 import static io.github.mishyy.bencode.util.Bytes.validateToken;
+import static io.github.mishyy.bencode.util.Bytes.writeDecimal;
 
 public final class BytesType implements Type<byte[]> {
 
@@ -17,26 +19,36 @@ public final class BytesType implements Type<byte[]> {
 
     @Override
     public byte[] decode(final BencodeInputStream stream) throws IOException {
-        final var buffer = new StringBuilder();
+        var length = 0;
+        var digits = 0;
 
         int token;
         while ((token = stream.read()) != Tokens.SEPARATOR) {
             validateToken(stream, Type.STRING, token);
-            buffer.append((char) token);
+            final var digit = token - '0';
+            if (length > (Integer.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("Length prefix exceeds " + Integer.MAX_VALUE);
+            }
+            length = length * 10 + digit;
+            digits++;
         }
-
-        final var length = Integer.parseInt(buffer.toString());
+        if (digits == 0) {
+            throw new NumberFormatException("Missing length prefix");
+        }
+        stream.limits().checkStringLength(length);
         return stream.readNBytes(length);
     }
 
     @Override
-    public byte[] encode(final byte[] bytes) throws IOException {
-        try (final var stream = new ByteArrayOutputStream()) {
-            stream.write(Integer.toString(bytes.length).getBytes());
-            stream.write(Tokens.SEPARATOR);
-            stream.write(bytes);
-            return stream.toByteArray();
-        }
+    public long encodedSize(final byte[] bytes) {
+        return stringSize(bytes.length);
+    }
+
+    @Override
+    public void encode(final byte[] bytes, final BencodeOutputStream stream) throws IOException {
+        writeDecimal(stream, bytes.length);
+        stream.write(Tokens.SEPARATOR);
+        stream.write(bytes);
     }
 
 }
@@ -1,14 +1,19 @@
 package io.github.mishyy.Tokens.type.impl;
 
 import io.github.mishyy.bencode.BencodeInputStream;
+import io.github.mishyy.bencode.BencodeOutputStream;
+import io.github.mishyy.bencode.ByteString;
 import io.github.mishyy.bencode.type.Type;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.*;
+import java.io.InvalidObjectException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
 
-import static io.github.mishyy.bencode.util.Bytes.checkEOF;
+import static io.github.mishyy.bencode.util.Bytes.stringSize;
 import static io.github.mishyy.bencode.util.Bytes.validateToken;
+import static io.github.mishyy.bencode.util.Bytes.writeDecimal;
 
 public final class DictionaryType implements Type<Map<?, ?>> {
 
@@ -19,39 +24,81 @@ public final class DictionaryType implements Type<Map<?, ?>> {
 
     @Override
     public Map<?, ?> decode(final BencodeInputStream stream) throws IOException {
-        var token = stream.read();
+        final var token = stream.read();
         validateToken(stream, DICTIONARY, token);
+        stream.unread(token);
+        return (Map<?, ?>) stream.readValue();
+    }
 
-        final var map = new LinkedHashMap<>();
-        while ((token = stream.read()) != Tokens.TERMINATOR) {
-            checkEOF(token);
-            stream.unread(token);
+    @Override
+    public long encodedSize(final Map<?, ?> map) throws IOException {
+        Objects.requireNonNull(map, "map");
 
-            final var key = STRING.decode(stream);
-            final var value = UNKNOWN.decode(stream);
-            map.put(key, value);
+        var size = 2L;
+        for (final var entry : map.entrySet()) {
+            size += switch (entry.getKey()) {
+                case ByteString string -> stringSize(string.length());
+                case byte[] bytes -> stringSize(bytes.length);
+                case Object key -> STRING.encodedSize(key.toString());
+            };
+            final var valueSize = UNKNOWN.encodedSize(entry.getValue());
+            if (valueSize < 0) {
+                return -1;
+            }
+            size += valueSize;
         }
-        return map;
+        return size;
     }
 
     @Override
-    public byte[] encode(final Map<?, ?> m) throws IOException {
-        Objects.requireNonNull(m, "map");
+    public void encode(final Map<?, ?> map, final BencodeOutputStream stream) throws IOException {
+        Objects.requireNonNull(map, "map");
 
-        var map = m;
-        if (!(m instanceof SortedMap<?, ?>)) {
-            map = new TreeMap<>(m);
+        final var size = map.size();
+        final var keys = new ByteString[size];
+        final var values = new Object[size];
+        var sorted = true;
+        var count = 0;
+        for (final var entry : map.entrySet()) {
+            final var key = key(entry.getKey());
+            sorted = sorted && (count == 0 || keys[count - 1].compareTo(key) < 0);
+            keys[count] = key;
+            values[count++] = entry.getValue();
         }
 
-        try (final var stream = new ByteArrayOutputStream()) {
-            stream.write(Tokens.DICTIONARY);
-            for (final var entry : map.entrySet()) {
-                stream.write(UNKNOWN.encode(entry.getKey().toString()));
-                stream.write(UNKNOWN.encode(entry.getValue()));
+        // Maps built in key order, sorted or not, are written as they are; everything else is ordered by raw bytes.
+        Integer[] order = null;
+        if (!sorted) {
+            order = new Integer[count];
+            for (var i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> keys[a].compareTo(keys[b]));
+            for (var i = 1; i < count; i++) {
+                if (keys[order[i - 1]].equals(keys[order[i]])) {
+                    throw new InvalidObjectException("Duplicate dictionary key '" + keys[order[i]] + "'");
+                }
             }
-            stream.write(Tokens.TERMINATOR);
-            return stream.toByteArray();
         }
+
+        stream.write(Tokens.DICTIONARY);
+        for (var i = 0; i < count; i++) {
+            final var index = order == null ? i : order[i];
+            final var key = keys[index];
+            writeDecimal(stream, key.length());
+            stream.write(Tokens.SEPARATOR);
+            key.writeTo(stream);
+            UNKNOWN.encode(values[index], stream);
+        }
+        stream.write(Tokens.TERMINATOR);
+    }
+
+    private static ByteString key(final Object key) {
+        return switch (key) {
+            case ByteString string -> string;
+            case byte[] bytes -> ByteString.wrap(bytes, 0, bytes.length);
+            default -> ByteString.of(key.toString());
+        };
     }
 
 }
@@ -1,13 +1,12 @@
 package io.github.mishyy.bencode.type.impl;
 
 import io.github.mishyy.bencode.BencodeInputStream;
+import io.github.mishyy.bencode.BencodeOutputStream;
 import io.github.mishyy.bencode.type.Type;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.Collection;
 
-import static io.github.mishyy.bencode.util.Bytes.checkEOF;
 import static io.github.mishyy.bencode.util.Bytes.validateToken;
 
 public final class ListType implements Type<Iterable<?>> {
@@ -19,27 +18,37 @@ public final class ListType implements Type<Iterable<?>> {
 
     @Override
     public Iterable<?> decode(final BencodeInputStream stream) throws IOException {
-        var token = stream.read();
+        final var token = stream.read();
         validateToken(stream, LIST, token);
+        stream.unread(token);
+        return (Iterable<?>) stream.readValue();
+    }
+
+    @Override
+    public long encodedSize(final Iterable<?> iterable) throws IOException {
+        // Only collections are walked twice; any other iterable may be single-use, so it is left to the one encoding pass.
+        if (!(iterable instanceof Collection<?>)) {
+            return -1;
+        }
 
-        final var list = new ArrayList<>();
-        while ((token = stream.read()) != Tokens.TERMINATOR) {
-            checkEOF(token);
-            list.add(UNKNOWN.decode(stream, token));
+        var size = 2L;
+        for (final var item : iterable) {
+            final var itemSize = UNKNOWN.encodedSize(item);
+            if (itemSize < 0) {
+                return -1;
+            }
+            size += itemSize;
         }
-        return list;
+        return size;
     }
 
     @Override
-    public byte[] encode(final Iterable<?> iterable) throws IOException {
-        try (final var stream = new ByteArrayOutputStream()) {
-            stream.write(Tokens.LIST);
-            for (final var item : iterable) {
-                stream.write(UNKNOWN.encode(item));
-            }
-            stream.write(Tokens.TERMINATOR);
-            return stream.toByteArray();
+    public void encode(final Iterable<?> iterable, final BencodeOutputStream stream) throws IOException {
+        stream.write(Tokens.LIST);
+        for (final var item : iterable) {
+            UNKNOWN.encode(item, stream);
         }
+        stream.write(Tokens.TERMINATOR);
     }
 
 }
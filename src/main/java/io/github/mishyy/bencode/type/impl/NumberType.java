@@ -1,14 +1,15 @@
 package io.github.mishyy.bencode.type.impl;
 
 import io.github.mishyy.bencode.BencodeInputStream;
+import io.github.mishyy.bencode.BencodeOutputStream;
 import io.github.mishyy.bencode.type.Type;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 
-import static io.github.mishyy.bencode.util.Bytes.checkEOF;
-import static io.github.mishyy.bencode.util.Bytes.validateToken;
+import static io.github.mishyy.bencode.util.Bytes.decimalLength;
+import static io.github.mishyy.bencode.util.Bytes.writeDecimal;
 
 public final class NumberType implements Type<Number> {
 
@@ -19,25 +20,23 @@ public final class NumberType implements Type<Number> {
 
     @Override
     public Number decode(final BencodeInputStream stream) throws IOException {
-        var token = stream.read();
-        validateToken(stream, NUMBER, token);
+        return stream.readNumber();
+    }
 
-        final var buffer = new StringBuilder();
-        while ((token = stream.read()) != Tokens.TERMINATOR) {
-            checkEOF(token);
-            buffer.append((char) token);
-        }
-        return new BigDecimal(buffer.toString()).longValue();
+    @Override
+    public long encodedSize(final Number number) {
+        return 2L + (number instanceof BigInteger value ? value.toString().length() : decimalLength(number.longValue()));
     }
 
     @Override
-    public byte[] encode(final Number number) throws IOException {
-        try (final var stream = new ByteArrayOutputStream()) {
-            stream.write(Tokens.NUMBER);
-            stream.write(Long.toString(number.longValue()).getBytes());
-            stream.write(Tokens.TERMINATOR);
-            return stream.toByteArray();
+    public void encode(final Number number, final BencodeOutputStream stream) throws IOException {
+        stream.write(Tokens.NUMBER);
+        if (number instanceof BigInteger value) {
+            stream.write(value.toString().getBytes(StandardCharsets.US_ASCII));
+        } else {
+            writeDecimal(stream, number.longValue());
         }
+        stream.write(Tokens.TERMINATOR);
     }
 
 }
@@ -1,7 +1,9 @@
 package io.github.mishyy.bencode.type.impl;
 
 import io.github.mishyy.bencode.BencodeInputStream;
+import io.github.mishyy.bencode.BencodeOutputStream;
 import io.github.mishyy.bencode.type.Type;
+import io.github.mishyy.bencode.util.Bytes;
 
 import java.io.IOException;
 
@@ -18,8 +20,13 @@ public final class StringType implements Type<String> {
     }
 
     @Override
-    public byte[] encode(final String string) throws IOException {
-        return BYTES.encode(string.getBytes());
+    public long encodedSize(final String string) {
+        return Bytes.stringSize(Bytes.encodedLength(string));
+    }
+
+    @Override
+    public void encode(final String string, final BencodeOutputStream stream) throws IOException {
+        BYTES.encode(string.getBytes(), stream);
     }
 
 }
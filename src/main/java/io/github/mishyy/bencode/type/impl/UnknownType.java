@@ -1,15 +1,20 @@
 package io.github.mishyy.bencode.type.impl;
 
+import io.github.mishyy.bencode.BencodeBinding;
 import io.github.mishyy.bencode.BencodeInputStream;
+import io.github.mishyy.bencode.BencodeOutputStream;
+import io.github.mishyy.bencode.ByteString;
 import io.github.mishyy.bencode.type.Type;
 import io.github.mishyy.bencode.util.Bytes;
 
 import java.io.IOException;
-import java.io.InvalidObjectException;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 public final class UnknownType implements Type<Object> {
 
+    private static final int CHUNK_SIZE = 8192;
+
     @Override
     public boolean validate(final int token) {
         return false;
@@ -17,28 +22,71 @@ public final class UnknownType implements Type<Object> {
 
     @Override
     public Object decode(final BencodeInputStream stream) throws IOException {
-        return decode(stream, stream.read());
+        return stream.readValue();
     }
 
     public Object decode(final BencodeInputStream stream, final int token) throws IOException {
         stream.unread(token);
-
-        final var type = Bytes.extractType(token);
-        if (type == Type.UNKNOWN) {
-            throw new InvalidObjectException("Unknown token '" + new String(Character.toChars(token)) + "'");
-        }
-        return type.decode(stream);
+        return stream.readValue();
     }
 
     @Override
-    public byte[] encode(final Object object) throws IOException {
+    public long encodedSize(final Object object) throws IOException {
         return switch (object) {
-            case byte[] bytes -> BYTES.encode(bytes);
-            case Number number -> NUMBER.encode(number);
-            case Iterable<?> iterable -> LIST.encode(iterable);
-            case Map<?, ?> map -> DICTIONARY.encode(map);
-            default -> STRING.encode(object.toString());
+            case byte[] bytes -> BYTES.encodedSize(bytes);
+            case ByteString string -> Bytes.stringSize(string.length());
+            case ByteBuffer buffer -> Bytes.stringSize(buffer.remaining());
+            case Number number -> NUMBER.encodedSize(number);
+            case Iterable<?> iterable -> LIST.encodedSize(iterable);
+            case Map<?, ?> map -> DICTIONARY.encodedSize(map);
+            case String string -> STRING.encodedSize(string);
+            default -> BencodeBinding.isBound(object.getClass())
+                    ? BencodeBinding.encodedSize(object)
+                    : STRING.encodedSize(object.toString());
         };
     }
 
+    @Override
+    public void encode(final Object object, final BencodeOutputStream stream) throws IOException {
+        switch (object) {
+            case byte[] bytes -> BYTES.encode(bytes, stream);
+            case ByteString string -> {
+                Bytes.writeDecimal(stream, string.length());
+                stream.write(Tokens.SEPARATOR);
+                string.writeTo(stream);
+            }
+            case ByteBuffer buffer -> {
+                Bytes.writeDecimal(stream, buffer.remaining());
+                stream.write(Tokens.SEPARATOR);
+                write(buffer, stream);
+            }
+            case Number number -> NUMBER.encode(number, stream);
+            case Iterable<?> iterable -> LIST.encode(iterable, stream);
+            case Map<?, ?> map -> DICTIONARY.encode(map, stream);
+            case String string -> STRING.encode(string, stream);
+            default -> {
+                if (BencodeBinding.isBound(object.getClass())) {
+                    BencodeBinding.encode(object, stream);
+                } else {
+                    STRING.encode(object.toString(), stream);
+                }
+            }
+        }
+    }
+
+    // Writes the remaining bytes without moving the buffer's position; mapped buffers are copied through in chunks.
+    private static void write(final ByteBuffer buffer, final BencodeOutputStream stream) throws IOException {
+        if (buffer.hasArray()) {
+            stream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+
+        final var chunk = new byte[Math.min(buffer.remaining(), CHUNK_SIZE)];
+        for (var offset = buffer.position(); offset < buffer.limit(); offset += chunk.length) {
+            final var length = Math.min(chunk.length, buffer.limit() - offset);
+            buffer.get(offset, chunk, 0, length);
+            stream.write(chunk, 0, length);
+        }
+    }
+
 }
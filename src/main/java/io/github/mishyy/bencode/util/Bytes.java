@@ -1,24 +1,30 @@
 package io.github.mishyy.bencode.util;
 
 import io.github.mishyy.bencode.BencodeInputStream;
+import io.github.mishyy.bencode.NumberMode;
 import io.github.mishyy.bencode.type.Type;
 
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InvalidObjectException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 public final class Bytes {
 
-    private static final Type<?>[] TYPES = { Type.STRING, Type.NUMBER, Type.LIST, Type.DICTIONARY };
     private static final int EOF = -1;
+    private static final boolean UTF_8_DEFAULT = Charset.defaultCharset().equals(StandardCharsets.UTF_8);
 
     public static Type<?> extractType(final int token) throws InvalidObjectException {
-        for (final var type : TYPES) {
-            if (type.validate(token)) {
-                return type;
-            }
-        }
-        return Type.UNKNOWN;
+        return switch (token) {
+            case '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' -> Type.STRING;
+            case Type.Tokens.NUMBER -> Type.NUMBER;
+            case Type.Tokens.LIST -> Type.LIST;
+            case Type.Tokens.DICTIONARY -> Type.DICTIONARY;
+            default -> Type.UNKNOWN;
+        };
     }
 
     public static void validateToken(final BencodeInputStream stream, final Type<?> type, final int token) throws IOException {
@@ -35,4 +41,85 @@ public final class Bytes {
         }
     }
 
+    // Only plain decimal digits are accepted: an exponent would let a few bytes stand for an arbitrarily large value.
+    public static Number parseNumber(final String text) {
+        final var first = text.startsWith("-") ? 1 : 0;
+        if (first == text.length()) {
+            throw new NumberFormatException("Integer has no digits");
+        }
+        for (var i = first; i < text.length(); i++) {
+            final var c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Unexpected character '" + c + "' in integer");
+            }
+        }
+
+        final var value = new BigInteger(text);
+        return value.bitLength() < Long.SIZE ? (Number) value.longValue() : value;
+    }
+
+    public static Number checkNumber(final Number number, final NumberMode mode) {
+        if (number instanceof Long || mode == NumberMode.BIG_INTEGER) {
+            return number;
+        }
+        throw new NumberFormatException("Integer of " + ((BigInteger) number).bitLength() + " bits overflows a long");
+    }
+
+    public static int decimalLength(final long value) {
+        var length = value < 0 ? 2 : 1;
+        for (var remainder = value / 10; remainder != 0; remainder /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    public static long stringSize(final int length) {
+        return decimalLength(length) + 1L + length;
+    }
+
+    public static int encodedLength(final String string) {
+        if (!UTF_8_DEFAULT) {
+            return string.getBytes().length;
+        }
+
+        // Mirrors String.getBytes(): unpaired surrogates are replaced by a single '?'.
+        var length = 0;
+        for (var i = 0; i < string.length(); i++) {
+            final var c = string.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < string.length() && Character.isLowSurrogate(string.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    public static void writeDecimal(final OutputStream stream, final long value) throws IOException {
+        // Digits are produced from the negated value so that Long.MIN_VALUE needs no special case.
+        var remainder = value;
+        if (value < 0) {
+            stream.write('-');
+        } else {
+            remainder = -value;
+        }
+
+        var divisor = 1L;
+        while (divisor <= -(remainder / 10)) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            stream.write('0' - (int) (remainder / divisor));
+            remainder %= divisor;
+            divisor /= 10;
+        }
+    }
+
 }
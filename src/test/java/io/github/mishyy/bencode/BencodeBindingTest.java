@@ -0,0 +1,161 @@
+package io.github.mishyy.bencode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InvalidObjectException;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class BencodeBindingTest {
+
+    private static final Bencode BENCODE = Bencode.get();
+
+    private record Peer(ByteString id, String ip, int port) {
+    }
+
+    private record Announce(@BencodeKey("interval") long interval,
+                            @BencodeKey("min interval") @BencodeOptional Long minInterval,
+                            List<Peer> peers,
+                            @BencodeKey("failure reason") @BencodeOptional String failure) {
+    }
+
+    private record Query(String t, String y, String q, Map<String, ByteString> a, @BencodeOptional boolean ro) {
+    }
+
+    private record Node(String name, @BencodeOptional List<Node> children) {
+    }
+
+    private record Numbers(byte b, short s, BigInteger big, Number number, Set<String> tags, Object any) {
+    }
+
+    private enum State {
+        STARTED, STOPPED
+    }
+
+    private record Flags(boolean flag, List<Boolean> flags, Map<String, Boolean> enabled, Set<State> states,
+                         Map<String, List<State>> history) {
+    }
+
+    private static final class Event {
+
+        @BencodeKey("event")
+        private State state;
+
+        @BencodeKey
+        private boolean done;
+
+        @BencodeKey("left")
+        @BencodeOptional
+        private Long left;
+
+        private String ignored = "ignored";
+
+    }
+
+    @Test
+    public void testDecodeRecord() {
+        final var bytes = "d8:intervali1800e12:min intervali900e5:peersld2:id2:ab2:ip9:127.0.0.14:porti6881eeee".getBytes();
+        final var announce = BENCODE.decodeObject(Announce.class, bytes);
+
+        assertEquals(new Announce(1800, 900L, List.of(new Peer(ByteString.of("ab"), "127.0.0.1", 6881)), null), announce);
+        assertArrayEquals(bytes, BENCODE.encode(announce));
+        assertEquals(bytes.length, BENCODE.encodedSize(announce));
+    }
+
+    @Test
+    public void testDecodeUnsortedAndUnknownKeys() {
+        final var bytes = "d5:peersle8:intervali60e7:unknownl1:xi1ee1:zd1:ai1eee".getBytes();
+
+        assertEquals(new Announce(60, null, List.of(), null), BENCODE.decodeObject(Announce.class, bytes));
+    }
+
+    @Test
+    public void testQuery() {
+        final var query = new Query("aa", "q", "ping", Map.of("id", ByteString.of("abcdefghij0123456789")), false);
+        final var bytes = BENCODE.encode(query);
+
+        assertEquals("d1:ad2:id20:abcdefghij0123456789e1:q4:ping2:roi0e1:t2:aa1:y1:qe", new String(bytes));
+        assertEquals(query, BENCODE.decodeObject(Query.class, bytes));
+        assertFalse(BENCODE.decodeObject(Query.class, "d1:ade1:q4:ping1:t2:aa1:y1:qe".getBytes()).ro());
+    }
+
+    @Test
+    public void testRecursiveRecord() {
+        final var node = new Node("root", List.of(new Node("leaf", null)));
+        final var bytes = BENCODE.encode(node);
+
+        assertEquals("d8:childrenld4:name4:leafee4:name4:roote", new String(bytes));
+        assertEquals(node, BENCODE.decodeObject(Node.class, bytes));
+    }
+
+    @Test
+    public void testNumbersAndCollections() {
+        final var bytes = "d3:anyl1:xe1:bi-128e3:bigi18446744073709551616e6:numberi7e1:si300e4:tagsl1:a1:b1:aee".getBytes();
+        final var numbers = BENCODE.decodeObject(Numbers.class, bytes);
+
+        assertEquals(new Numbers((byte) -128, (short) 300, new BigInteger("18446744073709551616"), 7L, Set.of("a", "b"), List.of("x")), numbers);
+        assertThrows(BencodeException.class, () -> BENCODE.decodeObject(Numbers.class, "d1:bi128ee".getBytes()));
+    }
+
+    @Test
+    public void testBean() {
+        final var bytes = "d4:donei1e5:event7:STARTED7:ignored5:valuee".getBytes();
+        final var event = BENCODE.decodeObject(Event.class, bytes);
+
+        assertEquals(State.STARTED, event.state);
+        assertTrue(event.done);
+        assertNull(event.left);
+        assertEquals("ignored", event.ignored);
+
+        event.left = 42L;
+        assertEquals("d4:donei1e5:event7:STARTED4:lefti42ee", new String(BENCODE.encode(event)));
+        assertEquals(37, BENCODE.encodedSize(event));
+    }
+
+    @Test
+    public void testMissingKey() {
+        final var e = assertThrows(BencodeException.class, () -> BENCODE.decodeObject(Announce.class, "d8:intervali1ee".getBytes()));
+
+        assertInstanceOf(InvalidObjectException.class, e.getCause());
+    }
+
+    @Test
+    public void testRequiredNull() {
+        assertThrows(BencodeException.class, () -> BENCODE.encode(new Peer(null, "ip", 1)));
+    }
+
+    @Test
+    public void testWrongType() {
+        assertThrows(BencodeException.class, () -> BENCODE.decodeObject(Peer.class, "d2:id2:ab2:ip9:127.0.0.14:port4:6881e".getBytes()));
+        assertThrows(BencodeException.class, () -> BENCODE.decodeObject(Peer.class, "l2:ide".getBytes()));
+    }
+
+    @Test
+    public void testUnbound() {
+        assertFalse(BencodeBinding.isBound(String.class));
+        assertTrue(BencodeBinding.isBound(Event.class));
+        assertThrows(BencodeException.class, () -> BENCODE.decodeObject(String.class, "3:abc".getBytes()));
+        assertThrows(NullPointerException.class, () -> BENCODE.decodeObject(null, "de".getBytes()));
+    }
+
+    @Test
+    public void testEncodeNested() {
+        assertEquals("ld2:id1:x2:ip1:y4:porti1eee", new String(BENCODE.encode(List.of(new Peer(ByteString.of("x"), "y", 1)))));
+    }
+
+    @Test
+    public void testNestedBooleansAndEnums() {
+        final var flags = new Flags(true, List.of(true, false), Map.of("b", false, "a", true), Set.of(State.STOPPED),
+                Map.of("x", List.of(State.STARTED, State.STOPPED)));
+        final var bytes = BENCODE.encode(flags);
+
+        assertEquals("d7:enabledd1:ai1e1:bi0ee4:flagi1e5:flagsli1ei0ee7:historyd1:xl7:STARTED7:STOPPEDee6:statesl7:STOPPEDee", new String(bytes));
+        assertEquals(bytes.length, BENCODE.encodedSize(flags));
+        assertEquals(flags, BENCODE.decodeObject(Flags.class, bytes));
+    }
+
+}
@@ -0,0 +1,232 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.InvalidObjectException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("unchecked")
+public final class BencodeCursorTest {
+
+    private static final String DICTIONARY = "d4:dictd3:1234:test3:4565:thinge4:listl11:list-item-111:list-item-2e6:numberi123456e6:string5:valuee";
+
+    private static ByteBuffer direct(final String string) {
+        final var bytes = string.getBytes();
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    @Test
+    public void testNextType() throws Exception {
+        assertEquals(Type.STRING, new BencodeCursor("7".getBytes()).nextType());
+        assertEquals(Type.NUMBER, new BencodeCursor("i1".getBytes()).nextType());
+        assertEquals(Type.LIST, new BencodeCursor("l123".getBytes()).nextType());
+        assertEquals(Type.DICTIONARY, new BencodeCursor("dtesting".getBytes()).nextType());
+        assertEquals(Type.UNKNOWN, new BencodeCursor("unknown".getBytes()).nextType());
+    }
+
+    @Test
+    public void testReadString() throws Exception {
+        final var cursor = new BencodeCursor("12:Hello World!123".getBytes());
+
+        assertEquals("Hello World!", cursor.readString());
+        assertEquals(15, cursor.position());
+        assertEquals(3, cursor.remaining());
+    }
+
+    @Test
+    public void testReadStringOffset() throws Exception {
+        final var cursor = new BencodeCursor("xx5:Helloyy".getBytes(), 2, 7);
+
+        assertEquals("Hello", cursor.readString());
+        assertEquals(0, cursor.remaining());
+    }
+
+    @Test
+    public void testReadStringNaN() {
+        assertThrows(InvalidObjectException.class, () -> new BencodeCursor("1c3:Testing".getBytes()).readString());
+    }
+
+    @Test
+    public void testReadStringShort() {
+        assertThrows(EOFException.class, () -> new BencodeCursor("5:Hell".getBytes()).readString());
+    }
+
+    @Test
+    public void testReadBytesDirect() throws Exception {
+        final var cursor = new BencodeCursor(direct("3:abc"));
+
+        assertArrayEquals("abc".getBytes(), cursor.readBytes());
+        assertEquals(0, cursor.remaining());
+    }
+
+    @Test
+    public void testReadNumber() throws Exception {
+        assertEquals(123456L, new BencodeCursor("i123456e".getBytes()).readNumber());
+        assertEquals(-42L, new BencodeCursor("i-42e".getBytes()).readNumber());
+        assertEquals(Long.MIN_VALUE, new BencodeCursor("i-9223372036854775808e".getBytes()).readNumber());
+        assertEquals(Long.MAX_VALUE, new BencodeCursor("i9223372036854775807e".getBytes()).readNumber());
+    }
+
+    @Test
+    public void testReadNumberScientificNotation() {
+        assertThrows(NumberFormatException.class, () -> new BencodeCursor("i-2.9155148901435E+18e".getBytes()).readNumber());
+        assertThrows(NumberFormatException.class, () -> new BencodeCursor("i1E999999999e".getBytes()).readNumber());
+        assertThrows(NumberFormatException.class, () -> new BencodeCursor("i-e".getBytes()).readNumber());
+    }
+
+    @Test
+    public void testReadNumberNaN() {
+        assertThrows(NumberFormatException.class, () -> new BencodeCursor("i123cbve1".getBytes()).readNumber());
+    }
+
+    @Test
+    public void testReadNumberEOF() {
+        assertThrows(EOFException.class, () -> new BencodeCursor("i123".getBytes()).readNumber());
+    }
+
+    @Test
+    public void testReadList() throws Exception {
+        final var cursor = new BencodeCursor("l5:Hello6:World!li123ei456eeetesting".getBytes());
+        final var result = (List<Object>) cursor.readList();
+
+        assertEquals(List.of("Hello", "World!", List.of(123L, 456L)), result);
+        assertEquals(7, cursor.remaining());
+    }
+
+    @Test
+    public void testReadListInvalidItem() {
+        assertThrows(InvalidObjectException.class, () -> new BencodeCursor("l2:Worlde".getBytes()).readList());
+    }
+
+    @Test
+    public void testReadDictionaryHeapBuffer() throws Exception {
+        final var result = new BencodeCursor(ByteBuffer.wrap(DICTIONARY.getBytes())).readDictionary();
+
+        assertEquals("value", result.get("string"));
+        assertEquals(123456L, result.get("number"));
+        assertEquals(List.of("list-item-1", "list-item-2"), result.get("list"));
+        assertEquals(Map.of("123", "test", "456", "thing"), result.get("dict"));
+    }
+
+    @Test
+    public void testReadDictionaryDirectBuffer() throws Exception {
+        final var buffer = direct(DICTIONARY);
+        final var result = new BencodeCursor(buffer).readDictionary();
+
+        assertEquals(4, result.size());
+        assertEquals(Map.of("123", "test", "456", "thing"), result.get("dict"));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testReadDictionaryEOF() {
+        assertThrows(EOFException.class, () -> new BencodeCursor("d4:item5:test".getBytes()).readDictionary());
+    }
+
+    @Test
+    public void testReadDictionaryDigest() throws Exception {
+        final var info = "d6:lengthi10e4:name3:foo6:pieces3:\1\2\3e";
+        final var torrent = "d8:announce3:url4:info" + info + "4:misci1ee";
+        final var sha1 = MessageDigest.getInstance("SHA-1");
+        final var sha256 = MessageDigest.getInstance("SHA-256");
+
+        final var result = new BencodeCursor(torrent.getBytes()).readDictionary("info", sha1, sha256);
+
+        assertEquals(3, result.size());
+        assertArrayEquals(MessageDigest.getInstance("SHA-1").digest(info.getBytes()), sha1.digest());
+        assertArrayEquals(MessageDigest.getInstance("SHA-256").digest(info.getBytes()), sha256.digest());
+    }
+
+    @Test
+    public void testReadDictionaryDigestDirect() throws Exception {
+        final var info = "d4:name3:fooe";
+        final var sha1 = MessageDigest.getInstance("SHA-1");
+
+        new BencodeCursor(direct("d4:info" + info + "e")).readDictionary("info", sha1);
+
+        assertArrayEquals(MessageDigest.getInstance("SHA-1").digest(info.getBytes()), sha1.digest());
+    }
+
+    @Test
+    public void testSkipValue() throws Exception {
+        final var cursor = new BencodeCursor("d1:ali1ei2ee1:bi3ee4:next".getBytes());
+
+        cursor.skipValue();
+        assertEquals(19, cursor.position());
+        assertEquals("next", cursor.readString());
+    }
+
+    @Test
+    public void testReadSlice() throws Exception {
+        final var bytes = "l3:abc3:defe".getBytes();
+        final var result = (List<Object>) new BencodeCursor(bytes).stringMode(BencodeCursor.StringMode.BUFFER).readValue();
+
+        assertEquals(List.of(ByteBuffer.wrap("abc".getBytes()), ByteBuffer.wrap("def".getBytes())), result);
+
+        bytes[3] = 'x';
+        assertEquals(ByteBuffer.wrap("xbc".getBytes()), result.get(0));
+    }
+
+    @Test
+    public void testReadByteString() throws Exception {
+        final var bytes = new byte[]{'d', '4', ':', 'h', 'a', 's', 'h', '2', ':', 0, (byte) 0xFF, 'e'};
+        final var result = (Map<Object, Object>) new BencodeCursor(bytes).stringMode(BencodeCursor.StringMode.BYTE_STRING).readValue();
+        final var value = (ByteString) result.get(ByteString.of("hash"));
+
+        assertEquals(ByteString.copyOf(new byte[]{0, (byte) 0xFF}), value);
+        assertEquals(value, new BencodeCursor(ByteBuffer.allocateDirect(12).put(bytes).flip().position(7)).readByteString());
+        assertArrayEquals(bytes, Bencode.get().encode(result));
+    }
+
+    @Test
+    public void testReadNumberBigInteger() throws Exception {
+        final var cursor = new BencodeCursor("li18446744073709551616ei1ee".getBytes()).numberMode(NumberMode.BIG_INTEGER);
+
+        assertEquals(List.of(new BigInteger("18446744073709551616"), 1L), cursor.readList());
+    }
+
+    @Test
+    public void testReadNumberOverflow() {
+        assertThrows(NumberFormatException.class, () -> new BencodeCursor("i18446744073709551616e".getBytes()).readNumber());
+    }
+
+    @Test
+    public void testReadLong() throws Exception {
+        final var cursor = new BencodeCursor(direct("i-7ei1.5e"));
+
+        assertEquals(-7, cursor.readLong());
+        assertThrows(NumberFormatException.class, cursor::readLong);
+    }
+
+    @Test
+    public void testDeepNesting() throws Exception {
+        final var depth = 100_000;
+        final var bytes = ("ld1:a".repeat(depth) + "i7e" + "ee".repeat(depth)).getBytes();
+        final var cursor = new BencodeCursor(bytes).limits(DecodeLimits.UNLIMITED);
+
+        Object value = cursor.readValue();
+        for (var i = 0; i < depth; i++) {
+            value = ((Map<?, ?>) ((List<?>) value).get(0)).get("a");
+        }
+        assertEquals(7L, value);
+        assertEquals(0, cursor.remaining());
+    }
+
+    @Test
+    public void testMixedValue() throws Exception {
+        final var cursor = new BencodeCursor("d1:ald1:bi1eei2e0:e1:cle1:dd1:e1:fee".getBytes());
+
+        assertEquals(Map.of("a", List.of(Map.of("b", 1L), 2L, ""), "c", List.of(), "d", Map.of("e", "f")), cursor.readValue());
+        assertThrows(InvalidObjectException.class, () -> new BencodeCursor("d1:ae".getBytes()).readValue());
+        assertThrows(EOFException.class, () -> new BencodeCursor("ld".getBytes()).readValue());
+    }
+
+}
@@ -0,0 +1,100 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.InvalidObjectException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SuppressWarnings("unchecked")
+public final class BencodeIndexTest {
+
+    private static final String TORRENT = "d8:announce3:url4:infod5:filesld6:lengthi10e4:pathl1:aeed6:lengthi20e4:pathl1:beee"
+            + "4:name3:foo6:pieces4:\0\1\2\3ee";
+
+    @Test
+    public void testDictionary() {
+        final var index = BencodeIndex.of(TORRENT.getBytes());
+        final var root = index.dictionary();
+
+        assertSame(Type.DICTIONARY, index.type());
+        assertEquals(2, root.size());
+        assertEquals("url", root.get("announce"));
+        assertTrue(root.containsKey("info"));
+        assertFalse(root.containsKey("missing"));
+        assertNull(root.get("missing"));
+
+        final var info = (Map<String, Object>) root.get("info");
+        assertEquals("foo", info.get("name"));
+        assertEquals(List.of("files", "name", "pieces"), List.copyOf(info.keySet()));
+
+        final var files = (List<Object>) info.get("files");
+        assertEquals(2, files.size());
+        assertEquals(20L, ((Map<String, Object>) files.get(1)).get("length"));
+        assertEquals(List.of("b"), ((Map<String, Object>) files.get(1)).get("path"));
+    }
+
+    @Test
+    public void testMatchesEagerDecoding() {
+        final var bytes = "d4:dictd3:1234:test3:4565:thinge4:listl11:list-item-111:list-item-2e6:numberi123456e6:string5:valuee".getBytes();
+
+        assertEquals(Bencode.get().decodeDictionary(bytes), BencodeIndex.of(bytes).dictionary());
+    }
+
+    @Test
+    public void testList() {
+        final var index = BencodeIndex.of("l5:Hello6:World!li123ei456eeetrailing".getBytes());
+
+        assertEquals(List.of("Hello", "World!", List.of(123L, 456L)), index.list());
+        assertEquals(29, index.length());
+        assertEquals(6, index.size());
+    }
+
+    @Test
+    public void testScalar() {
+        assertEquals(-42L, BencodeIndex.of("i-42e".getBytes()).value());
+        assertEquals("spam", BencodeIndex.of("4:spam".getBytes()).value());
+    }
+
+    @Test
+    public void testReadOnly() {
+        final var root = BencodeIndex.of("d1:ai1ee".getBytes()).dictionary();
+
+        assertThrows(UnsupportedOperationException.class, () -> root.put("b", 2L));
+        assertThrows(UnsupportedOperationException.class, () -> root.entrySet().iterator().next().setValue(3L));
+    }
+
+    @Test
+    public void testWrongRootType() {
+        assertThrows(IllegalStateException.class, () -> BencodeIndex.of("le".getBytes()).dictionary());
+    }
+
+    @Test
+    public void testEOF() {
+        final var e = assertThrows(BencodeException.class, () -> BencodeIndex.of("d4:infol".getBytes()));
+        assertInstanceOf(EOFException.class, e.getCause());
+    }
+
+    @Test
+    public void testStringPastEnd() {
+        final var e = assertThrows(BencodeException.class, () -> BencodeIndex.of("l10:shorte".getBytes()));
+        assertInstanceOf(EOFException.class, e.getCause());
+    }
+
+    @Test
+    public void testNonStringKey() {
+        final var e = assertThrows(BencodeException.class, () -> BencodeIndex.of("di1ei2ee".getBytes()));
+        assertInstanceOf(InvalidObjectException.class, e.getCause());
+    }
+
+    @Test
+    public void testMissingValue() {
+        final var e = assertThrows(BencodeException.class, () -> BencodeIndex.of("d1:ae".getBytes()));
+        assertInstanceOf(InvalidObjectException.class, e.getCause());
+    }
+
+}
@@ -1,11 +1,18 @@
 package io.github.mishyy.bencode;
 
 import io.github.mishyy.bencode.type.Type;
+import io.github.mishyy.bencode.util.Bytes;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InvalidObjectException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -133,10 +140,12 @@ public final class BencodeInputStreamTest {
     }
 
     @Test
-    public void testReadNumberScientificNotation() throws Exception {
-        instantiate("i-2.9155148901435E+18e");
+    public void testReadNumberScientificNotation() {
+        instantiate("i-2.9155148901435E+18ei1E999999999e");
 
-        assertEquals(-2915514890143500000L, in.readNumber().longValue());
+        assertThrows(NumberFormatException.class, () -> in.readNumber());
+        final var e = assertThrows(NumberFormatException.class, () -> in.readNumber());
+        assertFalse(e.getMessage().contains("999"));
     }
 
     @Test
@@ -228,4 +237,136 @@ public final class BencodeInputStreamTest {
         assertEquals(0, in.available());
     }
 
+    @Test
+    public void testUnreadMultipleBytes() throws Exception {
+        instantiate("3:abc");
+
+        assertEquals('3', in.read());
+        in.unread('3');
+        in.unread('x');
+        in.unread('y');
+
+        assertEquals('y', in.read());
+        assertEquals('x', in.read());
+        assertEquals("abc", in.readString());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testReadAcrossBufferBoundary() throws Exception {
+        final var value = "x".repeat(100);
+        in = new BencodeInputStream(new ByteArrayInputStream(("l100:" + value + "i42ee").getBytes()), 7);
+
+        assertEquals(List.of(value, 42L), in.readList());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testReadBulk() throws Exception {
+        final var value = new byte[64 * 1024];
+        Arrays.fill(value, (byte) 'z');
+        final var encoded = new byte[value.length + 6];
+        System.arraycopy("65536:".getBytes(), 0, encoded, 0, 6);
+        System.arraycopy(value, 0, encoded, 6, value.length);
+
+        final var reads = new int[1];
+        final InputStream counting = new FilterInputStream(new ByteArrayInputStream(encoded)) {
+            @Override
+            public int read() throws IOException {
+                reads[0]++;
+                return super.read();
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                reads[0]++;
+                return super.read(b, off, len);
+            }
+        };
+        in = new BencodeInputStream(counting);
+
+        assertArrayEquals(value, in.readBytes());
+        assertTrue(reads[0] < 16, "reads: " + reads[0]);
+    }
+
+    @Test
+    public void testReadDictionaryDigest() throws Exception {
+        final var info = "d6:lengthi10e4:name3:foo6:pieces40:" + "\1".repeat(40) + "e";
+        final var torrent = "d8:announce3:url4:info" + info + "4:misci1ee";
+        final var sha1 = MessageDigest.getInstance("SHA-1");
+        in = new BencodeInputStream(new ByteArrayInputStream(torrent.getBytes()), 8);
+
+        final var result = in.readDictionary("info", sha1);
+
+        assertEquals(3, result.size());
+        assertArrayEquals(MessageDigest.getInstance("SHA-1").digest(info.getBytes()), sha1.digest());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testReadLong() throws Exception {
+        instantiate("i-9223372036854775808ei9223372036854775807e");
+
+        assertEquals(Long.MIN_VALUE, in.readLong());
+        assertEquals(Long.MAX_VALUE, in.readLong());
+        assertEquals(0, in.available());
+    }
+
+    @Test
+    public void testReadNumberOverflow() throws Exception {
+        instantiate("i9223372036854775808e1");
+
+        assertThrows(NumberFormatException.class, () -> in.readNumber());
+        assertEquals(1, in.available());
+    }
+
+    @Test
+    public void testReadNumberBigInteger() throws Exception {
+        instantiate("i123456789012345678901234567890ei-9223372036854775809ei42e");
+        in.numberMode(NumberMode.BIG_INTEGER);
+
+        assertEquals(new BigInteger("123456789012345678901234567890"), in.readNumber());
+        assertEquals(new BigInteger("-9223372036854775809"), in.readNumber());
+        assertEquals(42L, in.readNumber());
+    }
+
+    @Test
+    public void testReadLongBigInteger() {
+        instantiate("i123456789012345678901234567890e");
+        in.numberMode(NumberMode.BIG_INTEGER);
+
+        assertThrows(NumberFormatException.class, () -> in.readLong());
+    }
+
+    @Test
+    public void testDeepNesting() throws Exception {
+        final var depth = 100_000;
+        final var bytes = ("ld1:a".repeat(depth) + "i7e" + "ee".repeat(depth)).getBytes();
+
+        try (final var stream = new BencodeInputStream(new ByteArrayInputStream(bytes)).limits(DecodeLimits.UNLIMITED)) {
+            Object value = stream.readList();
+            for (var i = 0; i < depth; i++) {
+                value = ((Map<?, ?>) ((List<?>) value).get(0)).get("a");
+            }
+            assertEquals(7L, value);
+            assertEquals(-1, stream.read());
+        }
+    }
+
+    @Test
+    public void testMixedValue() throws Exception {
+        try (final var stream = new BencodeInputStream(new ByteArrayInputStream("d1:ald1:bi1eei2e0:e1:cle1:dd1:e1:fee".getBytes()))) {
+            assertEquals(Map.of("a", List.of(Map.of("b", 1L), 2L, ""), "c", List.of(), "d", Map.of("e", "f")), stream.readValue());
+        }
+        try (final var stream = new BencodeInputStream(new ByteArrayInputStream("d1:ae".getBytes()))) {
+            assertThrows(InvalidObjectException.class, stream::readValue);
+            assertEquals('e', stream.read());
+        }
+        try (final var stream = new BencodeInputStream(new ByteArrayInputStream("ld".getBytes()))) {
+            assertThrows(EOFException.class, stream::readValue);
+        }
+        assertEquals(Type.UNKNOWN, Bytes.extractType('x'));
+        assertEquals(Type.STRING, Bytes.extractType('7'));
+    }
+
 }
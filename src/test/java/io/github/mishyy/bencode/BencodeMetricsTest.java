@@ -0,0 +1,163 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class BencodeMetricsTest {
+
+    private static final Bencode BENCODE = Bencode.get();
+
+    @AfterEach
+    public void disable() {
+        BENCODE.metrics(null);
+    }
+
+    @Test
+    public void testFacade() {
+        final var metrics = new BencodeMetrics();
+        BENCODE.metrics(metrics);
+
+        final var bytes = "d4:listli1ei2ee6:string5:abcdee".getBytes();
+        BENCODE.decodeDictionary(bytes);
+        final var encoded = BENCODE.encode(List.of(Map.of("k", "value!")));
+        assertThrows(BencodeException.class, () -> BENCODE.decodeDictionary("d1:a".getBytes()));
+
+        assertEquals(7, metrics.decoded(Type.UNKNOWN));
+        assertEquals(1, metrics.decoded(Type.DICTIONARY));
+        assertEquals(1, metrics.decoded(Type.LIST));
+        assertEquals(2, metrics.decoded(Type.NUMBER));
+        assertEquals(3, metrics.decoded(Type.STRING));
+        assertEquals(4, metrics.encoded(Type.UNKNOWN));
+        assertEquals(bytes.length, metrics.bytesIn());
+        assertEquals(encoded.length, metrics.bytesOut());
+        assertEquals(3, metrics.maxDepth());
+        assertEquals(6, metrics.largestString());
+        assertEquals(Map.of(EOFException.class, 1L), metrics.failures());
+        assertEquals(2, metrics.decodeLatency().count());
+        assertEquals(1, metrics.encodeLatency().count());
+        assertTrue(metrics.decodeLatency().percentileNanos(100) <= metrics.decodeLatency().maxNanos());
+
+        metrics.reset();
+        assertEquals(0, metrics.decoded(Type.UNKNOWN));
+        assertEquals(0, metrics.decodeLatency().count());
+        assertEquals(Map.of(), metrics.failures());
+    }
+
+    @Test
+    public void testDeepValue() {
+        final var metrics = new BencodeMetrics();
+        BENCODE.metrics(metrics);
+        BENCODE.limits(DecodeLimits.UNLIMITED);
+        try {
+            final var depth = 100_000;
+            BENCODE.decodeList(("l".repeat(depth) + "d1:ai1ee" + "e".repeat(depth)).getBytes());
+
+            assertEquals(depth + 2, metrics.maxDepth());
+            assertEquals(1, metrics.decoded(Type.NUMBER));
+            assertEquals(depth, metrics.decoded(Type.LIST));
+        } finally {
+            BENCODE.limits(DecodeLimits.DEFAULT);
+        }
+    }
+
+    @Test
+    public void testSingleUseIterable() {
+        final var metrics = new BencodeMetrics();
+        BENCODE.metrics(metrics);
+
+        final var stream = List.of("a", "b").stream();
+        assertEquals("l1:a1:be", new String(BENCODE.encode((Iterable<String>) stream::iterator)));
+        assertEquals(1, metrics.encoded(Type.LIST));
+        assertEquals(8, metrics.bytesOut());
+    }
+
+    @Test
+    public void testDisabled() {
+        final var metrics = new BencodeMetrics();
+        BENCODE.metrics(metrics);
+        BENCODE.metrics(null);
+
+        BENCODE.decodeAll(List.of("i1e".getBytes()));
+        assertNull(BENCODE.metrics());
+        assertEquals(0, metrics.bytesIn());
+    }
+
+    @Test
+    public void testStreams() throws Exception {
+        final var metrics = new BencodeMetrics();
+
+        final var out = new ByteArrayOutputStream();
+        try (final var stream = new BencodeOutputStream(out).metrics(metrics)) {
+            stream.writeList(List.of("ab", 1L));
+            assertThrows(NullPointerException.class, () -> stream.writeString((String) null));
+        }
+        assertEquals(out.size(), metrics.bytesOut());
+        assertEquals(3, metrics.encoded(Type.UNKNOWN));
+        assertEquals(Map.of(NullPointerException.class, 1L), metrics.failures());
+
+        try (final var stream = new BencodeInputStream(new ByteArrayInputStream(out.toByteArray())).metrics(metrics)) {
+            stream.readList();
+        }
+        assertEquals(out.size(), metrics.bytesIn());
+    }
+
+    @Test
+    public void testHistogram() {
+        final var histogram = new BencodeMetrics().decodeLatency();
+        assertEquals(0, histogram.percentileNanos(50));
+
+        for (final var nanos : new long[]{0, 1, 3, 100, 1_000, 1_000_000}) {
+            histogram.record(nanos);
+        }
+        assertEquals(6, histogram.count());
+        assertEquals(3, histogram.percentileNanos(50));
+        assertEquals(1_023, histogram.percentileNanos(80));
+        assertEquals(1_000_000, histogram.percentileNanos(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentileNanos(101));
+    }
+
+    @Test
+    public void testEvents(@TempDir final Path dir) throws Exception {
+        final var file = dir.resolve("bencode.jfr");
+        try (final var recording = new Recording()) {
+            recording.enable(BencodeDecodeEvent.class);
+            recording.enable(BencodeEncodeEvent.class);
+            recording.start();
+
+            BENCODE.decodeDictionary("d5:piecei1e4:name3:abce".getBytes());
+            BENCODE.encode(List.of("x"));
+            assertThrows(BencodeException.class, () -> BENCODE.decodeList("l".getBytes()));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        final var events = RecordingFile.readAllEvents(file);
+        final var decodes = events.stream().filter(e -> e.getEventType().getName().equals("io.github.mishyy.bencode.Decode")).toList();
+        final var encodes = events.stream().filter(e -> e.getEventType().getName().equals("io.github.mishyy.bencode.Encode")).toList();
+
+        assertEquals(2, decodes.size());
+        assertEquals("dictionary", decodes.get(0).getString("type"));
+        assertEquals(23, decodes.get(0).getLong("bytes"));
+        assertEquals(5, decodes.get(0).getLong("values"));
+        assertEquals(5, decodes.get(0).getLong("largestString"));
+        assertEquals(EOFException.class.getName(), decodes.get(1).getString("failure"));
+        assertEquals(1, encodes.size());
+        assertEquals("list", encodes.get(0).getString("type"));
+        assertEquals(2, encodes.get(0).getInt("maxDepth"));
+    }
+
+}
@@ -4,11 +4,15 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
+import java.io.InvalidObjectException;
+import java.math.BigInteger;
 import java.util.*;
 import java.util.concurrent.ConcurrentSkipListMap;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public final class BencodeOutputStreamTest {
 
@@ -80,6 +84,22 @@ public final class BencodeOutputStreamTest {
         assertEquals("i123e", baos.toString());
     }
 
+    @Test
+    public void testWriteNumberNegative() throws Exception {
+        out.writeNumber(-42);
+
+        assertEquals("i-42e", baos.toString());
+    }
+
+    @Test
+    public void testWriteNumberBounds() throws Exception {
+        out.writeNumber(Long.MIN_VALUE);
+        out.writeNumber(Long.MAX_VALUE);
+        out.writeNumber(0);
+
+        assertEquals("i-9223372036854775808ei9223372036854775807ei0e", baos.toString());
+    }
+
     @Test
     public void testWriteNumberNull() {
         assertThrows(NullPointerException.class, () -> out.writeNumber(null));
@@ -113,6 +133,17 @@ public final class BencodeOutputStreamTest {
         assertEquals(0, baos.toByteArray().length);
     }
 
+    @Test
+    public void testPassThroughReleasesLargeBuffer() throws Exception {
+        final var large = new byte[1 << 20];
+        out.writeList(List.of(large, large));
+        assertEquals(2 * large.length + 18, baos.size());
+        assertTrue(out.buffer().length < large.length);
+
+        out.writeString("spam");
+        assertEquals("4:spam", baos.toString().substring(baos.size() - 6));
+    }
+
     @Test
     public void testWriteListNull() {
         assertThrows(NullPointerException.class, () -> out.writeList(null));
@@ -140,6 +171,37 @@ public final class BencodeOutputStreamTest {
         assertEquals("de", baos.toString());
     }
 
+    @Test
+    public void testWriteDictionaryBinaryKeys() throws Exception {
+        final var map = new HashMap<Object, Object>();
+        map.put(new byte[]{(byte) 0x80}, 1);
+        map.put(ByteString.copyOf(new byte[]{0x7F}), 2);
+        map.put("a", 3);
+        out.writeDictionary(map);
+
+        assertArrayEquals(new byte[]{'d', '1', ':', 'a', 'i', '3', 'e', '1', ':', 0x7F, 'i', '2', 'e', '1', ':', (byte) 0x80, 'i', '1', 'e', 'e'},
+                baos.toByteArray());
+    }
+
+    @Test
+    public void testWriteDictionaryRawByteOrder() throws Exception {
+        // U+1F600 sorts before U+FF21 as UTF-16 but after it as UTF-8.
+        out.writeDictionary(new TreeMap<>(Map.of("\uFF21", 1, "\uD83D\uDE00", 2)));
+
+        assertEquals("d3:\uFF21i1e4:\uD83D\uDE00i2ee", baos.toString());
+    }
+
+    @Test
+    public void testWriteDictionaryDuplicateKey() {
+        final var map = new LinkedHashMap<Object, Object>();
+        map.put("b", 1);
+        map.put("1", 2);
+        map.put(1, 3);
+
+        assertThrows(InvalidObjectException.class, () -> out.writeDictionary(map));
+        assertEquals(0, baos.toByteArray().length);
+    }
+
     @Test
     public void testWriteDictionaryKeyCastException() {
         assertThrows(ClassCastException.class, () -> out.writeDictionary(new TreeMap<>() {{
@@ -155,4 +217,27 @@ public final class BencodeOutputStreamTest {
         assertEquals(0, baos.toByteArray().length);
     }
 
+    @Test
+    public void testWriteNumberBigInteger() throws Exception {
+        out.writeNumber(new BigInteger("-123456789012345678901234567890"));
+
+        assertEquals("i-123456789012345678901234567890e", baos.toString());
+    }
+
+    @Test
+    public void testToByteArray() throws Exception {
+        final var bytes = new BencodeOutputStream(13);
+        bytes.writeList(List.of("abc", 42));
+        assertThrows(NullPointerException.class, () -> bytes.writeList(Arrays.asList("abc", null)));
+
+        assertEquals("l3:abci42ee", new String(bytes.toByteArray()));
+        assertEquals(0, bytes.toByteArray().length);
+        assertThrows(IllegalStateException.class, () -> out.toByteArray());
+
+        final var exact = new BencodeOutputStream(4);
+        exact.writeNumber(42);
+        exact.close();
+        assertEquals("i42e", new String(exact.toByteArray()));
+    }
+
 }
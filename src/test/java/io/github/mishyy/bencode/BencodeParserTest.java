@@ -0,0 +1,130 @@
+package io.github.mishyy.bencode;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.InvalidObjectException;
+import java.lang.management.ManagementFactory;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class BencodeParserTest {
+
+    private static final String DICTIONARY = "d4:dictd3:1234:test3:4565:thinge4:listl11:list-item-111:list-item-2e6:numberi123456e6:string5:valuee";
+
+    private BencodeParser parser;
+
+    @BeforeEach
+    public void setUp() {
+        parser = new BencodeParser();
+    }
+
+    @Test
+    public void testFeedWhole() throws Exception {
+        final var input = ByteBuffer.wrap(DICTIONARY.getBytes());
+
+        assertEquals(Bencode.get().decodeDictionary(DICTIONARY.getBytes()), parser.feed(input));
+        assertFalse(input.hasRemaining());
+        assertTrue(parser.isIdle());
+    }
+
+    @Test
+    public void testFeedByteByByte() throws Exception {
+        final var bytes = DICTIONARY.getBytes();
+
+        Object result = null;
+        for (var i = 0; i < bytes.length; i++) {
+            assertNull(result, "completed early at " + i);
+            result = parser.feed(ByteBuffer.wrap(bytes, i, 1));
+        }
+        assertEquals(Bencode.get().decodeDictionary(bytes), result);
+    }
+
+    @Test
+    public void testFeedMultipleValues() throws Exception {
+        final var input = ByteBuffer.wrap("i-42e5:Hellol".getBytes());
+
+        assertEquals(-42L, parser.feed(input));
+        assertEquals("Hello", parser.feed(input));
+        assertNull(parser.feed(input));
+        assertEquals(1, parser.depth());
+        assertEquals(List.of(), parser.feed(ByteBuffer.wrap("e".getBytes())));
+    }
+
+    @Test
+    public void testFeedSplitString() throws Exception {
+        assertNull(parser.feed(ByteBuffer.wrap("d3:key1".getBytes())));
+        assertNull(parser.feed(ByteBuffer.wrap("0:01234".getBytes())));
+        assertEquals(Map.of("key", "0123456789"), parser.feed(ByteBuffer.wrap("56789e".getBytes())));
+    }
+
+    @Test
+    public void testFeedNumberBounds() throws Exception {
+        assertEquals(Long.MIN_VALUE, parser.feed(ByteBuffer.wrap("i-9223372036854775808e".getBytes())));
+        assertThrows(NumberFormatException.class, () -> parser.feed(ByteBuffer.wrap("i9223372036854775808e".getBytes())));
+        assertThrows(NumberFormatException.class, () -> new BencodeParser().feed(ByteBuffer.wrap("i-92233720368547758080e".getBytes())));
+    }
+
+    @Test
+    public void testFeedBigInteger() throws Exception {
+        parser.numberMode(NumberMode.BIG_INTEGER);
+        final var bytes = "li9223372036854775807ei9223372036854775808ei-18446744073709551616ee".getBytes();
+
+        Object result = null;
+        for (var i = 0; i < bytes.length; i++) {
+            result = parser.feed(ByteBuffer.wrap(bytes, i, 1));
+        }
+        assertEquals(List.of(Long.MAX_VALUE, BigInteger.ONE.shiftLeft(63), BigInteger.ONE.shiftLeft(64).negate()), result);
+        assertEquals(new BencodeCursor(bytes).numberMode(NumberMode.BIG_INTEGER).readValue(), result);
+        assertThrows(BencodeLimitException.class, () -> new BencodeParser().numberMode(NumberMode.BIG_INTEGER)
+                .limits(DecodeLimits.DEFAULT.withMaxIntegerDigits(20)).feed(ByteBuffer.wrap("i123456789012345678901e".getBytes())));
+    }
+
+    @Test
+    public void testFeedInvalid() {
+        assertThrows(InvalidObjectException.class, () -> parser.feed(ByteBuffer.wrap("l2:Worlde".getBytes())));
+    }
+
+    @Test
+    public void testFeedNonStringKey() {
+        assertThrows(InvalidObjectException.class, () -> parser.feed(ByteBuffer.wrap("di1ei2ee".getBytes())));
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        assertNull(parser.feed(ByteBuffer.wrap("ld3:key".getBytes())));
+        parser.reset();
+
+        assertTrue(parser.isIdle());
+        assertEquals(7L, parser.feed(ByteBuffer.wrap("i7e".getBytes())));
+    }
+
+    @Test
+    public void testLengthPrefixOnly() throws Exception {
+        final var threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final var thread = Thread.currentThread().threadId();
+        final var before = threads.getThreadAllocatedBytes(thread);
+
+        assertNull(parser.feed(ByteBuffer.wrap("67108864:".getBytes())));
+        assertTrue(threads.getThreadAllocatedBytes(thread) - before < 1 << 20, "payload was allocated up front");
+    }
+
+    @Test
+    public void testLongStringInChunks() throws Exception {
+        final var payload = "x".repeat(100_000);
+        final var bytes = (payload.length() + ":" + payload).getBytes();
+
+        Object result = null;
+        for (var i = 0; i < bytes.length; i += 999) {
+            assertNull(result);
+            result = parser.feed(ByteBuffer.wrap(bytes, i, Math.min(999, bytes.length - i)));
+        }
+        assertEquals(payload, result);
+    }
+
+}
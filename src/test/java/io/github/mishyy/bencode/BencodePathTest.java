@@ -0,0 +1,114 @@
+package io.github.mishyy.bencode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class BencodePathTest {
+
+    private static final Bencode BENCODE = Bencode.get();
+    private static final byte[] TORRENT = ("d8:announce3:url13:announce-listll1:ael1:bel1:cee4:infod5:filesld6:lengthi10e4:pathl1:aeed6:lengthi20e4:pathl1:bee"
+            + "d4:pathl1:ceee4:name3:foo12:piece lengthi16384e6:pieces4:abcdee").getBytes();
+
+    private static List<Object> select(final BencodePath path) throws IOException {
+        final var values = BENCODE.select(path, TORRENT);
+        try (final var in = new BencodeInputStream(new ByteArrayInputStream(TORRENT), 4)) {
+            assertEquals(values, path.select(in));
+            assertEquals(-1, in.read());
+        }
+        return values;
+    }
+
+    private static Map<String, Object> project(final BencodePath path) throws IOException {
+        final var value = BENCODE.project(path, TORRENT);
+        try (final var in = new BencodeInputStream(new ByteArrayInputStream(TORRENT), 4)) {
+            assertEquals(value, path.project(in));
+            assertEquals(-1, in.read());
+        }
+        return value;
+    }
+
+    @Test
+    public void testSelect() throws IOException {
+        assertEquals(List.of(10L, 20L), select(BencodePath.compile("info.files[*].length")));
+        assertEquals(List.of("foo"), select(BencodePath.compile("info.name")));
+        assertEquals(List.of(16384L), select(BencodePath.compile("info.piece length")));
+        assertEquals(List.of("c"), select(BencodePath.compile("announce-list[2][0]")));
+        assertEquals(List.of(), select(BencodePath.compile("info.missing")));
+        assertEquals(List.of(), select(BencodePath.compile("announce.name")));
+        assertEquals(List.of(), select(BencodePath.compile("info.files[7]")));
+    }
+
+    @Test
+    public void testSelectSeveral() throws IOException {
+        final var path = BencodePath.compile("announce", "info.name", "info.files[1].path[0]");
+
+        assertEquals(List.of("url", "b", "foo"), select(path));
+        assertEquals("announce, info.name, info.files[1].path[0]", path.toString());
+    }
+
+    @Test
+    public void testWildcardKeys() throws IOException {
+        assertEquals(List.of("foo"), select(BencodePath.compile("*.name")));
+        // A wildcard also applies beside a named key, without selecting the value twice.
+        assertEquals(List.of(10L, "a", 20L, "b", "c"), select(BencodePath.compile("info.files[*].*[0]", "info.files[*].length")));
+    }
+
+    @Test
+    public void testProject() throws IOException {
+        final var value = project(BencodePath.compile("info.name", "info.files[*].length", "announce"));
+
+        assertEquals(Map.of("announce", "url", "info", Map.of("name", "foo", "files", List.of(Map.of("length", 10L), Map.of("length", 20L), Map.of()))), value);
+        assertEquals(List.of("announce", "info"), List.copyOf(value.keySet()));
+        assertEquals(Map.of("announce-list", List.of(List.of("b"))), project(BencodePath.compile("announce-list[1]")));
+    }
+
+    @Test
+    public void testProjectWildcard() throws IOException {
+        final var value = project(BencodePath.compile("info.*"));
+        final var info = (Map<?, ?>) value.get("info");
+
+        assertEquals(List.of("files", "name", "piece length", "pieces"), List.copyOf(info.keySet()));
+        assertEquals(Map.of(), project(BencodePath.compile("[0]")));
+        assertThrows(BencodeException.class, () -> BENCODE.project(BencodePath.compile("a"), "le".getBytes()));
+    }
+
+    @Test
+    public void testEscapes() {
+        final var bytes = "d3:a.bi1e1:*i2e1:ci3ee".getBytes();
+
+        assertEquals(List.of(1L), BENCODE.select(BencodePath.compile("a\\.b"), bytes));
+        assertEquals(List.of(2L), BENCODE.select(BencodePath.compile("\\*"), bytes));
+        assertEquals(List.of(1L, 2L, 3L), BENCODE.select(BencodePath.compile("*"), bytes));
+    }
+
+    @Test
+    public void testInvalidPaths() {
+        for (final var path : List.of("", "a.", ".a", "a..b", "a[", "a[]", "a[x]", "a[0]b", "a\\", "a.[0]")) {
+            assertThrows(IllegalArgumentException.class, () -> BencodePath.compile(path), path);
+        }
+        assertThrows(IllegalArgumentException.class, BencodePath::compile);
+        assertThrows(NullPointerException.class, () -> BencodePath.compile((String) null));
+    }
+
+    @Test
+    public void testMalformedInput() {
+        final var path = BencodePath.compile("info.name");
+
+        assertThrows(BencodeException.class, () -> BENCODE.select(path, "d4:infod4:name".getBytes()));
+        assertThrows(BencodeLimitException.class, () -> {
+            BENCODE.limits(DecodeLimits.DEFAULT.withMaxDepth(1));
+            try {
+                BENCODE.select(path, "d4:infod4:name1:xee".getBytes());
+            } finally {
+                BENCODE.limits(DecodeLimits.DEFAULT);
+            }
+        });
+    }
+
+}
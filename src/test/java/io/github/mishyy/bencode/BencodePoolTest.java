@@ -0,0 +1,129 @@
+package io.github.mishyy.bencode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class BencodePoolTest {
+
+    private record Peer(String ip, int port) {
+    }
+
+    @Test
+    public void testEncoderReuse() {
+        final var encoder = new BencodeEncoder();
+
+        assertEquals("d1:ai1ee", new String(encoder.encode(Map.of("a", 1))));
+        assertEquals("4:spam", new String(encoder.encode("spam")));
+        assertEquals("d2:ip1:x4:porti1ee", new String(encoder.encode(new Peer("x", 1))));
+    }
+
+    @Test
+    public void testEncoderTargets() {
+        final var encoder = new BencodeEncoder(16);
+        final var out = new ByteArrayOutputStream();
+        encoder.encode(List.of("x".repeat(64)), out);
+        assertEquals("l64:" + "x".repeat(64) + "e", out.toString());
+
+        final var buffer = ByteBuffer.allocate(8);
+        assertEquals(3, encoder.encode(1L, buffer));
+        assertEquals(3, buffer.position());
+        assertThrows(BencodeException.class, () -> encoder.encode("too long for it", buffer));
+        assertEquals(3, buffer.position());
+        assertThrows(IllegalArgumentException.class, () -> new BencodeEncoder(-1));
+    }
+
+    @Test
+    public void testEncoderFailureDoesNotLeak() {
+        final var encoder = new BencodeEncoder();
+
+        assertThrows(BencodeException.class, () -> encoder.encode(List.of("a", new Peer(null, 1))));
+        assertEquals("1:b", new String(encoder.encode("b")));
+    }
+
+    @Test
+    public void testDecoderReuse() {
+        final var decoder = new BencodeDecoder();
+
+        assertEquals(Map.of("a", 1L), decoder.decode("d1:ai1ee".getBytes()));
+        assertEquals("spam", decoder.decode("xx4:spam".getBytes(), 2, 6));
+        assertEquals(List.of(1L, 2L), decoder.decode(new ByteArrayInputStream("li1ei2ee".getBytes())));
+        assertEquals(new Peer("x", 1), decoder.decodeObject(Peer.class, "d2:ip1:x4:porti1ee".getBytes()));
+    }
+
+    @Test
+    public void testDecoderFailureDoesNotLeak() {
+        final var decoder = new BencodeDecoder(new KeyCache()).numberMode(NumberMode.BIG_INTEGER);
+
+        assertThrows(BencodeException.class, () -> decoder.decode("d1:ai1e".getBytes()));
+        assertThrows(BencodeException.class, () -> decoder.decode(new ByteArrayInputStream("l".getBytes())));
+        assertThrows(IndexOutOfBoundsException.class, () -> decoder.decode(new byte[2], 1, 2));
+        assertEquals(new BigInteger("18446744073709551616"), decoder.decode("i18446744073709551616e".getBytes()));
+    }
+
+    @Test
+    public void testPoolBounded() {
+        final var pool = new BencodePool(2);
+        final var encoders = List.of(pool.acquireEncoder(), pool.acquireEncoder(), pool.acquireEncoder());
+        encoders.forEach(pool::release);
+        assertEquals(2, pool.idleEncoders());
+        assertSame(encoders.get(0), pool.acquireEncoder());
+
+        final var decoder = pool.acquireDecoder();
+        pool.release(decoder);
+        assertEquals(1, pool.idleDecoders());
+        assertSame(decoder, pool.acquireDecoder());
+        assertThrows(IllegalArgumentException.class, () -> new BencodePool(0));
+    }
+
+    @Test
+    public void testPoolResetsDecoderSettings() {
+        final var pool = new BencodePool(1);
+        final var decoder = pool.acquireDecoder().numberMode(NumberMode.BIG_INTEGER).limits(DecodeLimits.DEFAULT.withMaxDepth(1));
+        assertEquals(new BigInteger("18446744073709551616"), decoder.decode("i18446744073709551616e".getBytes()));
+        pool.release(decoder);
+
+        final var next = pool.acquireDecoder();
+        assertSame(decoder, next);
+        assertEquals(List.of(List.of()), next.decode("lleee".getBytes(), 0, 4));
+        assertThrows(BencodeException.class, () -> next.decode("i18446744073709551616e".getBytes()));
+    }
+
+    @Test
+    public void testDecoderReusesStackAfterFailure() {
+        final var decoder = new BencodeDecoder();
+        final var deep = "l".repeat(40) + "d1:ai1e1:bl";
+
+        assertThrows(BencodeException.class, () -> decoder.decode(deep.getBytes()));
+        assertEquals(List.of(Map.of("a", List.of(1L))), decoder.decode("ld1:ali1eeee".getBytes()));
+    }
+
+    @Test
+    public void testPoolVirtualThreads() throws Exception {
+        final var pool = new BencodePool(4);
+        final var futures = new ArrayList<Future<Object>>();
+
+        try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0; i < 1_000; i++) {
+                final var value = Map.of("id", (long) i, "name", "peer" + i);
+                futures.add(executor.submit(() -> pool.decode(pool.encode(value))));
+            }
+            for (var i = 0; i < futures.size(); i++) {
+                assertEquals(Map.of("id", (long) i, "name", "peer" + i), futures.get(i).get());
+            }
+        }
+        assertTrue(pool.idleEncoders() <= 4);
+        assertTrue(pool.idleDecoders() <= 4);
+    }
+
+}
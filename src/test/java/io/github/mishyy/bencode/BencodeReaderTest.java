@@ -0,0 +1,123 @@
+package io.github.mishyy.bencode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.InvalidObjectException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class BencodeReaderTest {
+
+    private BencodeReader reader;
+
+    private void instantiate(final String string) {
+        reader = new BencodeReader(new ByteArrayInputStream(string.getBytes()));
+    }
+
+    @Test
+    public void testPeek() throws Exception {
+        instantiate("d4:listli1ee3:str5:valuee");
+
+        assertEquals(BencodeReader.Token.DICTIONARY, reader.peek());
+        reader.beginDictionary();
+        assertEquals(BencodeReader.Token.STRING, reader.peek());
+        assertEquals("list", reader.nextKey());
+        assertEquals(BencodeReader.Token.LIST, reader.peek());
+        reader.beginList();
+        assertEquals(BencodeReader.Token.NUMBER, reader.peek());
+        assertEquals(1L, reader.nextLong());
+        assertEquals(BencodeReader.Token.END, reader.peek());
+        reader.endList();
+        assertEquals("str", reader.nextKey());
+        assertEquals("value", reader.nextString());
+        reader.endDictionary();
+        assertEquals(BencodeReader.Token.EOF, reader.peek());
+    }
+
+    @Test
+    public void testSelectFields() throws Exception {
+        instantiate("d8:completei10e10:incompletei3e8:intervali1800e5:peers12:abcdefghijkle");
+
+        long interval = -1;
+        byte[] peers = null;
+        reader.beginDictionary();
+        while (reader.hasNext()) {
+            switch (reader.nextKey()) {
+                case "interval" -> interval = reader.nextLong();
+                case "peers" -> peers = reader.nextBytes();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endDictionary();
+
+        assertEquals(1800, interval);
+        assertArrayEquals("abcdefghijkl".getBytes(), peers);
+        assertEquals(0, reader.depth());
+    }
+
+    @Test
+    public void testSkipValueNested() throws Exception {
+        instantiate("ld1:ali1ei2ee1:bd1:c3:xyzeei7ee");
+
+        reader.beginList();
+        reader.skipValue();
+        assertEquals(7, reader.nextLong());
+        reader.endList();
+        assertEquals(BencodeReader.Token.EOF, reader.peek());
+    }
+
+    @Test
+    public void testSkipValueAtKey() throws Exception {
+        instantiate("d1:ai1e1:bi2ee");
+
+        reader.beginDictionary();
+        reader.skipValue();
+        assertEquals("b", reader.nextKey());
+        assertEquals(2, reader.nextLong());
+        reader.endDictionary();
+    }
+
+    @Test
+    public void testSkipValueEOF() {
+        instantiate("l5:Hel");
+
+        assertThrows(EOFException.class, () -> reader.skipValue());
+    }
+
+    @Test
+    public void testNextLongBounds() throws Exception {
+        instantiate("li-9223372036854775808ei9223372036854775807ei9223372036854775808ee");
+
+        reader.beginList();
+        assertEquals(Long.MIN_VALUE, reader.nextLong());
+        assertEquals(Long.MAX_VALUE, reader.nextLong());
+        assertThrows(NumberFormatException.class, () -> reader.nextLong());
+    }
+
+    @Test
+    public void testValueWhereKeyExpected() throws Exception {
+        instantiate("d1:ai1ee");
+
+        reader.beginDictionary();
+        assertThrows(IllegalStateException.class, () -> reader.nextLong());
+    }
+
+    @Test
+    public void testUnknownToken() {
+        instantiate("x");
+
+        assertThrows(InvalidObjectException.class, () -> reader.peek());
+    }
+
+    @Test
+    public void testMismatchedEnd() throws Exception {
+        instantiate("le");
+
+        reader.beginList();
+        assertThrows(IllegalStateException.class, () -> reader.endDictionary());
+        reader.endList();
+    }
+
+}
@@ -3,11 +3,18 @@ package io.github.mishyy.bencode;
 import io.github.mishyy.bencode.type.Type;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.EOFException;
 import java.io.InvalidObjectException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -186,6 +193,32 @@ public final class BencodeTest {
         assertCause(EOFException.class, () -> BENCODE.decodeDictionary("d4:item5:test".getBytes()));
     }
 
+    @Test
+    public void testDecodeMapped(@TempDir final Path dir) throws Exception {
+        final var file = dir.resolve("resume.dat");
+        Files.write(file, "d6:piecesi0e4:infod6:pieces4:\0\1\2\3ee".getBytes());
+
+        final var decoded = (Map<String, Object>) BENCODE.decodeMapped(file);
+        final var info = (Map<String, Object>) decoded.get("info");
+        final var pieces = (ByteBuffer) info.get("pieces");
+
+        assertEquals(0L, decoded.get("pieces"));
+        assertTrue(pieces.isDirect());
+        assertTrue(pieces.isReadOnly());
+        assertEquals(ByteBuffer.wrap(new byte[] { 0, 1, 2, 3 }), pieces);
+
+        // Mapped strings are written back as their bytes, in canonical key order.
+        final var canonical = "d4:infod6:pieces4:\0\1\2\3e6:piecesi0ee".getBytes();
+        assertArrayEquals(canonical, BENCODE.encode(decoded));
+        assertEquals(canonical.length, BENCODE.encodedSize(decoded));
+        assertEquals(0, pieces.position());
+    }
+
+    @Test
+    public void testDecodeMappedMissingFile(@TempDir final Path dir) {
+        assertCause(NoSuchFileException.class, () -> BENCODE.decodeMapped(dir.resolve("missing")));
+    }
+
     @Test
     public void testWriteString() {
         final var encoded = BENCODE.encode("Hello World!");
@@ -284,4 +317,107 @@ public final class BencodeTest {
         assertThrows(NullPointerException.class, () -> BENCODE.encode((Map<?, ?>) null), "map");
     }
 
+    @Test
+    public void testEncodedSize() {
+        final var values = List.of(
+                "",
+                "caf\u00e9 \u20ac \uD83D\uDE00 \uD800 lone",
+                Long.MIN_VALUE,
+                Long.MAX_VALUE,
+                -1,
+                0,
+                new java.math.BigInteger("-18446744073709551616"),
+                new byte[300],
+                ByteString.of("bytes"),
+                List.of(List.of(), Map.of()),
+                new TreeMap<>(Map.of("\u00e9", 1, "b", List.of("x", 42))),
+                Map.of(new byte[]{1, 2}, ByteString.of("v")),
+                new Object() {
+                    @Override
+                    public String toString() {
+                        return "custom";
+                    }
+                }
+        );
+
+        for (final var value : values) {
+            assertEquals(BENCODE.encode(value).length, BENCODE.encodedSize(value), () -> "size of " + value);
+        }
+        assertEquals(BENCODE.encode(values).length, BENCODE.encodedSize(values));
+    }
+
+    @Test
+    public void testEncodeSingleUseIterables() {
+        final var shared = List.of("a", "b").iterator();
+        final Iterable<String> once = () -> shared;
+        final var stream = IntStream.range(0, 3).boxed();
+
+        assertEquals("l1:a1:be", new String(BENCODE.encode(once)));
+        assertEquals("d1:kli0ei1ei2eee", new String(BENCODE.encode(Map.of("k", (Iterable<Integer>) stream::iterator))));
+        assertEquals(-1, BENCODE.encodedSize(List.of((Iterable<String>) List.<String>of()::iterator)));
+    }
+
+    @Test
+    public void testEncodedSizeNull() {
+        assertThrows(NullPointerException.class, () -> BENCODE.encodedSize(null));
+        assertCause(NullPointerException.class, () -> BENCODE.encodedSize(Arrays.asList("x", null)));
+    }
+
+    @Test
+    public void testDecodeAll() {
+        final var items = IntStream.range(0, 1_000)
+                .mapToObj(i -> i % 100 == 7 ? "d1:a".getBytes() : ("d2:idi" + i + "ee").getBytes())
+                .toList();
+        final var results = BENCODE.decodeAll(items);
+
+        assertEquals(items.size(), results.size());
+        for (var i = 0; i < results.size(); i++) {
+            final var result = results.get(i);
+            if (i % 100 == 7) {
+                assertFalse(result.isSuccess());
+                assertInstanceOf(EOFException.class, result.error().getCause());
+                assertThrows(BencodeException.class, result::get);
+            } else {
+                assertEquals(Map.of("id", (long) i), result.get());
+            }
+        }
+    }
+
+    @Test
+    public void testBatchKeepsScratchState() {
+        // Every batch task can hand its decoder and encoder back to the pool instead of dropping it.
+        final var tasks = Runtime.getRuntime().availableProcessors() * 4;
+        final var pool = BENCODE.pool();
+        final var decoders = IntStream.range(0, tasks).mapToObj(i -> pool.acquireDecoder()).toList();
+        final var encoders = IntStream.range(0, tasks).mapToObj(i -> pool.acquireEncoder()).toList();
+        decoders.forEach(pool::release);
+        encoders.forEach(pool::release);
+
+        assertEquals(tasks, pool.idleDecoders());
+        assertEquals(tasks, pool.idleEncoders());
+    }
+
+    @Test
+    public void testEncodeAll() {
+        final var values = Arrays.asList("a", 1L, List.of("b"), null, 0);
+
+        try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final var results = BENCODE.encodeAll(values, executor);
+
+            assertEquals("1:a", new String(results.get(0).get()));
+            assertEquals("i1e", new String(results.get(1).get()));
+            assertEquals("l1:be", new String(results.get(2).get()));
+            assertInstanceOf(NullPointerException.class, results.get(3).error().getCause());
+            assertEquals("i0e", new String(results.get(4).get()));
+        }
+    }
+
+    @Test
+    public void testBatchEmptyAndNull() {
+        assertEquals(List.of(), BENCODE.decodeAll(List.of()));
+        assertEquals(List.of(), BENCODE.encodeAll(List.of(), Runnable::run));
+        assertThrows(NullPointerException.class, () -> BENCODE.decodeAll(null));
+        assertThrows(NullPointerException.class, () -> BENCODE.encodeAll(List.of(), null));
+    }
+
 }
@@ -0,0 +1,129 @@
+package io.github.mishyy.bencode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class BencodeValidatorTest {
+
+    private static final Bencode BENCODE = Bencode.get();
+
+    private static void assertInvalid(final String string, final ValidationMode mode, final long offset) {
+        final var bytes = string.getBytes();
+        final var result = BENCODE.validate(bytes, mode);
+        assertFalse(result.valid(), string);
+        assertEquals(offset, result.offset(), string);
+        assertNotNull(result.reason());
+
+        // A one byte read size forces every refill path of the stream scanner.
+        assertEquals(result, BENCODE.validate(new SlowInputStream(bytes), mode));
+    }
+
+    private static void assertValid(final String string, final ValidationMode mode) {
+        final var bytes = string.getBytes();
+        assertSame(ValidationResult.VALID, BENCODE.validate(bytes, mode), string);
+        assertSame(ValidationResult.VALID, BENCODE.validate(new SlowInputStream(bytes), mode), string);
+    }
+
+    @Test
+    public void testWellFormed() {
+        assertValid("d8:announce3:url4:infod5:filesld6:lengthi10e4:pathl1:aeee4:name1:xee", ValidationMode.WELL_FORMED);
+        assertValid("i-42e", ValidationMode.WELL_FORMED);
+        assertValid("0:", ValidationMode.WELL_FORMED);
+        assertValid("le", ValidationMode.WELL_FORMED);
+        assertValid("i007e", ValidationMode.WELL_FORMED);
+        assertValid("d1:bi1e1:ai2ee", ValidationMode.WELL_FORMED);
+        assertValid("i1etrailing", ValidationMode.WELL_FORMED);
+    }
+
+    @Test
+    public void testMalformed() {
+        assertInvalid("", ValidationMode.WELL_FORMED, 0);
+        assertInvalid("l1:a", ValidationMode.WELL_FORMED, 4);
+        assertInvalid("5:abc", ValidationMode.WELL_FORMED, 5);
+        assertInvalid("ie", ValidationMode.WELL_FORMED, 1);
+        assertInvalid("i-e", ValidationMode.WELL_FORMED, 2);
+        assertInvalid("i1x2e", ValidationMode.WELL_FORMED, 2);
+        assertInvalid("x", ValidationMode.WELL_FORMED, 0);
+        assertInvalid("e", ValidationMode.WELL_FORMED, 0);
+        assertInvalid("di1ei2ee", ValidationMode.WELL_FORMED, 1);
+        assertInvalid("d1:ae", ValidationMode.WELL_FORMED, 4);
+        assertInvalid("3a:abc", ValidationMode.WELL_FORMED, 1);
+        assertInvalid("99999999999:", ValidationMode.WELL_FORMED, 0);
+    }
+
+    @Test
+    public void testCanonical() {
+        assertValid("d1:ai1e2:aai2e1:bd1:xi0e1:yi-1eee", ValidationMode.CANONICAL);
+        assertValid("d0:i0e1:alee", ValidationMode.CANONICAL);
+        assertInvalid("i03e", ValidationMode.CANONICAL, 1);
+        assertInvalid("i-0e", ValidationMode.CANONICAL, 2);
+        assertInvalid("i-01e", ValidationMode.CANONICAL, 2);
+        assertInvalid("03:abc", ValidationMode.CANONICAL, 0);
+        assertInvalid("d1:bi1e1:ai2ee", ValidationMode.CANONICAL, 7);
+        assertInvalid("d1:ai1e1:ai2ee", ValidationMode.CANONICAL, 7);
+        assertInvalid("d1:ad1:yi0e1:xi0eee", ValidationMode.CANONICAL, 11);
+        assertInvalid("i1ee", ValidationMode.CANONICAL, 3);
+    }
+
+    @Test
+    public void testUnsignedKeyOrder() {
+        final var bytes = new byte[]{'d', '1', ':', 0x7f, 'i', '0', 'e', '1', ':', (byte) 0x80, 'i', '0', 'e', 'e'};
+
+        assertTrue(BENCODE.validate(bytes, ValidationMode.CANONICAL).valid());
+        assertTrue(BENCODE.validate(new ByteArrayInputStream(bytes), ValidationMode.CANONICAL).valid());
+    }
+
+    @Test
+    public void testNestedKeys() {
+        // Keys of outer dictionaries have to survive inner ones when streamed.
+        assertValid("d1:ad1:zd1:yi0eee1:bi0ee", ValidationMode.CANONICAL);
+        assertInvalid("d1:bd1:zi0ee1:ai0ee", ValidationMode.CANONICAL, 12);
+        assertValid("d100:" + "k".repeat(100) + "d100:" + "k".repeat(100) + "i0ee101:" + "k".repeat(101) + "i0ee", ValidationMode.CANONICAL);
+        BENCODE.limits(DecodeLimits.UNLIMITED);
+        try {
+            assertValid("d1:a".repeat(1_000) + "i0e" + "e".repeat(1_000), ValidationMode.CANONICAL);
+            assertValid("l".repeat(100_000) + "e".repeat(100_000), ValidationMode.CANONICAL);
+        } finally {
+            BENCODE.limits(DecodeLimits.DEFAULT);
+        }
+    }
+
+    @Test
+    public void testDepthLimit() {
+        assertInvalid("l".repeat(513) + "e".repeat(513), ValidationMode.WELL_FORMED, 512);
+
+        BENCODE.limits(DecodeLimits.DEFAULT.withMaxDepth(10));
+        try {
+            assertValid("l".repeat(10) + "e".repeat(10), ValidationMode.CANONICAL);
+            assertInvalid("l".repeat(100), ValidationMode.WELL_FORMED, 10);
+            assertInvalid("d1:a".repeat(11), ValidationMode.CANONICAL, 40);
+        } finally {
+            BENCODE.limits(DecodeLimits.DEFAULT);
+        }
+    }
+
+    @Test
+    public void testNullArguments() {
+        assertThrows(NullPointerException.class, () -> BENCODE.validate((byte[]) null));
+        assertThrows(NullPointerException.class, () -> BENCODE.validate((InputStream) null));
+        assertThrows(NullPointerException.class, () -> BENCODE.validate("le".getBytes(), null));
+    }
+
+    private static final class SlowInputStream extends ByteArrayInputStream {
+
+        private SlowInputStream(final byte[] bytes) {
+            super(bytes);
+        }
+
+        @Override
+        public synchronized int read(final byte[] b, final int off, final int len) {
+            return super.read(b, off, Math.min(len, 1));
+        }
+
+    }
+
+}
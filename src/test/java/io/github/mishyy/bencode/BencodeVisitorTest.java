@@ -0,0 +1,132 @@
+package io.github.mishyy.bencode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.InvalidObjectException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class BencodeVisitorTest {
+
+    private static final String DOCUMENT = "d4:infod5:filesld6:lengthi10eed6:lengthi-32eee4:name3:fooe3:key2:abe";
+    private static final List<String> EVENTS = List.of(
+            "{", "key:info",
+            "{", "key:files",
+            "[", "{", "key:length", "int:10", "}", "{", "key:length", "int:-32", "}", "]",
+            "key:name", "bytes:foo",
+            "}",
+            "key:key", "bytes:ab",
+            "}"
+    );
+
+    private static final class Recorder implements BencodeVisitor {
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onInteger(final long value) {
+            events.add("int:" + value);
+        }
+
+        @Override
+        public void onBytes(final byte[] bytes, final int offset, final int length) {
+            events.add("bytes:" + new String(bytes, offset, length));
+        }
+
+        @Override
+        public void onListStart() {
+            events.add("[");
+        }
+
+        @Override
+        public void onListEnd() {
+            events.add("]");
+        }
+
+        @Override
+        public void onDictionaryStart() {
+            events.add("{");
+        }
+
+        @Override
+        public void onKey(final byte[] bytes, final int offset, final int length) {
+            events.add("key:" + new String(bytes, offset, length));
+        }
+
+        @Override
+        public void onDictionaryEnd() {
+            events.add("}");
+        }
+
+    }
+
+    @Test
+    public void testVisitStream() throws Exception {
+        final var recorder = new Recorder();
+        final var in = new BencodeInputStream(new ByteArrayInputStream((DOCUMENT + "i1e").getBytes()));
+        in.visit(recorder);
+
+        assertEquals(EVENTS, recorder.events);
+        assertEquals(3, in.available());
+    }
+
+    @Test
+    public void testVisitCursor() throws Exception {
+        final var recorder = new Recorder();
+        new BencodeCursor(DOCUMENT.getBytes()).visit(recorder);
+
+        assertEquals(EVENTS, recorder.events);
+    }
+
+    @Test
+    public void testVisitDirectBuffer() throws Exception {
+        final var bytes = DOCUMENT.getBytes();
+        final var recorder = new Recorder();
+        new BencodeCursor(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip()).visit(recorder);
+
+        assertEquals(EVENTS, recorder.events);
+    }
+
+    @Test
+    public void testVisitAggregate() {
+        final var total = new long[1];
+        Bencode.get().visit(DOCUMENT.getBytes(), new BencodeVisitor() {
+            @Override
+            public void onInteger(final long value) {
+                total[0] += value;
+            }
+        });
+
+        assertEquals(-22, total[0]);
+    }
+
+    @Test
+    public void testVisitScalar() throws Exception {
+        final var recorder = new Recorder();
+        new BencodeCursor("i42e".getBytes()).visit(recorder);
+
+        assertEquals(List.of("int:42"), recorder.events);
+    }
+
+    @Test
+    public void testVisitEOF() {
+        final var in = new BencodeInputStream(new ByteArrayInputStream("d3:keyl".getBytes()));
+
+        assertThrows(EOFException.class, () -> in.visit(new Recorder()));
+        assertThrows(EOFException.class, () -> new BencodeCursor("d3:keyl".getBytes()).visit(new Recorder()));
+    }
+
+    @Test
+    public void testVisitMissingValue() {
+        final var in = new BencodeInputStream(new ByteArrayInputStream("d3:keye".getBytes()));
+
+        assertThrows(InvalidObjectException.class, () -> in.visit(new Recorder()));
+        assertThrows(InvalidObjectException.class, () -> new BencodeCursor("d3:keye".getBytes()).visit(new Recorder()));
+    }
+
+}
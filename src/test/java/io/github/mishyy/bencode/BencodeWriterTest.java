@@ -0,0 +1,155 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.util.Bytes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InvalidObjectException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class BencodeWriterTest {
+
+    private ByteArrayOutputStream baos;
+    private BencodeWriter writer;
+
+    @BeforeEach
+    public void setUp() {
+        baos = new ByteArrayOutputStream();
+        writer = new BencodeWriter(baos);
+    }
+
+    @Test
+    public void testNested() throws Exception {
+        writer.beginDictionary()
+                .key("announce").value("url")
+                .key("info").beginDictionary()
+                .key("files").beginList()
+                .beginDictionary().key("length").value(10).key("path").value(List.of("a")).end()
+                .end()
+                .key("name").value("foo".getBytes())
+                .end()
+                .end();
+        writer.close();
+
+        assertEquals("d8:announce3:url4:infod5:filesld6:lengthi10e4:pathl1:aeee4:name3:fooee", baos.toString());
+        assertEquals(0, writer.depth());
+    }
+
+    @Test
+    public void testScalars() throws Exception {
+        new BencodeWriter(baos).value(Long.MIN_VALUE).close();
+        assertEquals("i-9223372036854775808e", baos.toString());
+    }
+
+    @Test
+    public void testSources() throws Exception {
+        writer.beginDictionary()
+                .key("a").list(Stream.of(1, "x", ByteString.of("y")))
+                .key("b").dictionary(Map.of("k", 1L).entrySet().iterator())
+                .key("c").list(List.of().iterator())
+                .end();
+        writer.flush();
+
+        assertEquals("d1:ali1e1:x1:ye1:bd1:ki1ee1:clee", baos.toString());
+    }
+
+    @Test
+    public void testWritesIncrementally() throws Exception {
+        final var sink = new CountingOutputStream();
+        final var count = 100_000;
+        try (final var streaming = new BencodeWriter(sink, 64)) {
+            streaming.beginList();
+            for (var i = 0; i < count; i++) {
+                streaming.value(i);
+                // Nothing beyond the writer's own buffer is held back.
+                assertTrue(sink.pending(i) <= 64);
+            }
+            streaming.end();
+        }
+
+        final var expected = new ByteArrayOutputStream();
+        try (final var whole = new BencodeOutputStream(expected)) {
+            whole.writeList(IntStream.range(0, count).boxed().toList());
+        }
+        assertEquals(expected.size(), sink.written);
+    }
+
+    @Test
+    public void testKeyOrder() throws Exception {
+        writer.beginDictionary().key("b").value(1);
+
+        assertThrows(InvalidObjectException.class, () -> writer.key("a"));
+        assertThrows(InvalidObjectException.class, () -> writer.key("b"));
+        writer.key(new byte[]{(byte) 0x80}).value(2).end();
+
+        assertThrows(InvalidObjectException.class, () -> new BencodeWriter(OutputStream.nullOutputStream())
+                .dictionary(Stream.of(Map.entry("y", 1), Map.entry("x", 2))));
+    }
+
+    @Test
+    public void testNesting() throws Exception {
+        assertThrows(IllegalStateException.class, () -> writer.end());
+        assertThrows(IllegalStateException.class, () -> writer.key("a"));
+
+        writer.beginDictionary();
+        assertThrows(IllegalStateException.class, () -> writer.value(1));
+        writer.key("a");
+        assertThrows(IllegalStateException.class, () -> writer.key("b"));
+        assertThrows(IllegalStateException.class, () -> writer.end());
+        writer.beginList().end().end();
+
+        assertThrows(IllegalStateException.class, () -> writer.value(1));
+        assertThrows(IllegalStateException.class, () -> writer.beginList());
+        writer.close();
+        assertEquals("d1:alee", baos.toString());
+    }
+
+    @Test
+    public void testCloseUnfinished() throws Exception {
+        writer.beginList().value("x");
+
+        assertThrows(IllegalStateException.class, () -> writer.close());
+        assertEquals("l1:x", baos.toString());
+    }
+
+    @Test
+    public void testFailedValue() throws Exception {
+        writer.beginList();
+
+        assertThrows(InvalidObjectException.class, () -> writer.value(Map.of("a", 1, new byte[]{'a'}, 2)));
+        writer.value(1).end().flush();
+        assertEquals("li1ee", baos.toString());
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long written;
+
+        @Override
+        public void write(final int b) {
+            written++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) {
+            written += len;
+        }
+
+        private long pending(final int values) {
+            var expected = 1L;
+            for (var i = 0; i <= values; i++) {
+                expected += 2 + Bytes.decimalLength(i);
+            }
+            return expected - written;
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package io.github.mishyy.bencode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InvalidObjectException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class BencodedCodecTest {
+
+    @Bencoded
+    record Peer(@BencodeKey("peer id") ByteString id, String ip, int port) {
+    }
+
+    @Bencoded
+    record Announce(long interval,
+                    @BencodeKey("min interval") @BencodeOptional Long minInterval,
+                    List<Peer> peers,
+                    @BencodeKey("failure reason") @BencodeOptional String failure) {
+    }
+
+    enum Kind {
+        QUERY, RESPONSE
+    }
+
+    @Bencoded
+    record Message(String t, Kind y, Map<String, byte[]> a, Set<String> flags, boolean ro, Object extra) {
+    }
+
+    @Bencoded
+    record Flags(Map<String, Boolean> flags, Map<String, Kind> kinds, Map<ByteString, Peer> peers) {
+    }
+
+    private static <T> T decode(final io.github.mishyy.bencode.type.TypeDecoder<T> decoder, final String string) throws Exception {
+        try (final var in = new BencodeInputStream(new ByteArrayInputStream(string.getBytes()))) {
+            return decoder.decode(in);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        final var announce = new Announce(1800, null, List.of(new Peer(ByteString.of("abc"), "127.0.0.1", 6881)), null);
+        final var bytes = BencodedCodecTest_AnnounceCodec.INSTANCE.encode(announce);
+
+        assertEquals("d8:intervali1800e5:peersld2:ip9:127.0.0.17:peer id3:abc4:porti6881eeee", new String(bytes));
+        assertArrayEquals(Bencode.get().encode(announce), bytes);
+        assertEquals(announce, decode(BencodedCodecTest_AnnounceCodec.INSTANCE, new String(bytes)));
+    }
+
+    @Test
+    public void testUnknownKeysAndOrder() throws Exception {
+        final var announce = decode(BencodedCodecTest_AnnounceCodec.INSTANCE,
+                "d5:peersle3:zzzd1:xl1:yee12:min intervali60e8:intervali120e5:extrai1ee");
+
+        assertEquals(new Announce(120, 60L, List.of(), null), announce);
+    }
+
+    @Test
+    public void testMessage() throws Exception {
+        final var codec = BencodedCodecTest_MessageCodec.INSTANCE;
+        final var message = decode(codec, "d1:ad2:id2:xye5:extral1:ae5:flagsl1:a1:be2:roi1e1:t2:aa1:y5:QUERYe");
+
+        assertEquals("aa", message.t());
+        assertEquals(Kind.QUERY, message.y());
+        assertArrayEquals("xy".getBytes(), message.a().get("id"));
+        assertEquals(Set.of("a", "b"), message.flags());
+        assertTrue(message.ro());
+        assertEquals(List.of("a"), message.extra());
+        assertEquals("d1:ad2:id2:xye5:extral1:ae5:flagsl1:a1:be2:roi1e1:t2:aa1:y5:QUERYe", new String(codec.encode(message)));
+    }
+
+    @Test
+    public void testMapValues() throws Exception {
+        final var codec = BencodedCodecTest_FlagsCodec.INSTANCE;
+        final var flags = new Flags(Map.of("y", false, "x", true), Map.of("q", Kind.QUERY),
+                Map.of(ByteString.of("b"), new Peer(ByteString.of("id"), "::1", 1), ByteString.of("a"), new Peer(ByteString.EMPTY, "", 0)));
+        final var bytes = codec.encode(flags);
+
+        assertEquals("d5:flagsd1:xi1e1:yi0ee5:kindsd1:q5:QUERYe5:peersd1:ad2:ip0:7:peer id0:4:porti0ee"
+                + "1:bd2:ip3:::17:peer id2:id4:porti1eeee", new String(bytes));
+        assertArrayEquals(Bencode.get().encode(flags), bytes);
+        assertEquals(flags, decode(codec, new String(bytes)));
+
+        final var e = assertThrows(InvalidObjectException.class, () -> decode(codec, "d5:flagsde5:kindsd1:q3:BADe5:peersdee"));
+        assertTrue(e.getMessage().contains("BAD"));
+    }
+
+    @Test
+    public void testMissingKey() {
+        final var e = assertThrows(InvalidObjectException.class, () -> decode(BencodedCodecTest_PeerCodec.INSTANCE, "d2:ip1:x4:porti1ee"));
+
+        assertTrue(e.getMessage().contains("peer id"));
+    }
+
+    @Test
+    public void testInvalidInput() {
+        assertThrows(InvalidObjectException.class, () -> decode(BencodedCodecTest_PeerCodec.INSTANCE, "l2:ipe"));
+        assertThrows(NumberFormatException.class, () -> decode(BencodedCodecTest_PeerCodec.INSTANCE, "d2:ip1:x7:peer id0:4:porti4294967296ee"));
+        assertThrows(NullPointerException.class, () -> BencodedCodecTest_PeerCodec.INSTANCE.encode(new Peer(null, "x", 1)));
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.github.mishyy.bencode;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class ByteStringTest {
+
+    @Test
+    public void testWrapSharesArray() {
+        final var bytes = "xabcx".getBytes();
+        final var string = ByteString.wrap(bytes, 1, 3);
+
+        assertEquals(3, string.length());
+        assertEquals('a', string.byteAt(0));
+        bytes[1] = 'z';
+        assertEquals('z', string.byteAt(0));
+    }
+
+    @Test
+    public void testCopyOfDetaches() {
+        final var bytes = "abc".getBytes();
+        final var string = ByteString.copyOf(bytes);
+
+        bytes[0] = 'z';
+        assertEquals("abc", string.toString());
+        assertArrayEquals("abc".getBytes(), string.toByteArray());
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        final var a = ByteString.wrap("xxabc".getBytes(), 2, 3);
+        final var b = ByteString.of("abc");
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertNotEquals(a, ByteString.of("abd"));
+        assertNotEquals(a, "abc");
+        assertTrue(a.contentEquals("abc".getBytes()));
+    }
+
+    @Test
+    public void testCompareToIsUnsigned() {
+        final var high = ByteString.copyOf(new byte[]{(byte) 0x80});
+        final var low = ByteString.copyOf(new byte[]{0x7F});
+
+        assertTrue(high.compareTo(low) > 0);
+        assertTrue(ByteString.of("a").compareTo(ByteString.of("ab")) < 0);
+        assertEquals(0, ByteString.EMPTY.compareTo(ByteString.of("")));
+    }
+
+    @Test
+    public void testSubstring() {
+        final var string = ByteString.of("abcdef");
+
+        assertEquals(ByteString.of("cd"), string.substring(2, 4));
+        assertSame(string, string.substring(0, 6));
+        assertTrue(string.substring(3, 3).isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> string.substring(4, 7));
+    }
+
+    @Test
+    public void testOutput() throws Exception {
+        final var string = ByteString.wrap("xabcx".getBytes(), 1, 3);
+        final var out = new ByteArrayOutputStream();
+        string.writeTo(out);
+
+        assertArrayEquals("abc".getBytes(), out.toByteArray());
+        assertEquals(ByteBuffer.wrap("abc".getBytes()), string.asReadOnlyBuffer());
+        assertTrue(string.asReadOnlyBuffer().isReadOnly());
+    }
+
+    @Test
+    public void testEncode() {
+        assertArrayEquals("l3:abce".getBytes(), Bencode.get().encode(List.of(ByteString.of("abc"))));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(NullPointerException.class, () -> ByteString.of(null));
+        assertThrows(IndexOutOfBoundsException.class, () -> ByteString.wrap(new byte[2], 1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> ByteString.of("a").byteAt(1));
+    }
+
+}
@@ -0,0 +1,174 @@
+package io.github.mishyy.bencode;
+
+import io.github.mishyy.bencode.type.Type;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class DecodeLimitsTest {
+
+    private static final Bencode BENCODE = Bencode.get();
+    private static final DecodeLimits SMALL = new DecodeLimits(3, 8, 4, 64, 24);
+    private static final String WIDE = "l" + ("l" + "8:abcdefgh".repeat(4) + "e").repeat(4) + "e";
+
+    @AfterEach
+    public void restore() {
+        BENCODE.limits(DecodeLimits.DEFAULT);
+    }
+
+    private static void assertLimit(final DecodeLimits.Limit limit, final Executable executable) {
+        final var e = assertThrows(BencodeLimitException.class, executable);
+        assertEquals(limit, e.limit());
+        assertTrue(e.value() > e.max());
+    }
+
+    private static BencodeInputStream stream(final String string) {
+        return new BencodeInputStream(new ByteArrayInputStream(string.getBytes()), 16).limits(SMALL);
+    }
+
+    private static Object parse(final String string) throws Exception {
+        return new BencodeParser().limits(SMALL).feed(ByteBuffer.wrap(string.getBytes()));
+    }
+
+    @Test
+    public void testHugeLengthPrefix() {
+        final var datagram = "2000000000:".getBytes();
+
+        assertLimit(DecodeLimits.Limit.STRING_LENGTH, () -> BENCODE.decodeString(datagram));
+        assertLimit(DecodeLimits.Limit.STRING_LENGTH, () -> Type.BYTES.decode(new BencodeInputStream(new ByteArrayInputStream(datagram))));
+        assertLimit(DecodeLimits.Limit.STRING_LENGTH, () -> new BencodeParser().feed(ByteBuffer.wrap(datagram)));
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        assertEquals(List.of(List.of(List.of())), stream("llleee").readList());
+        assertLimit(DecodeLimits.Limit.DEPTH, () -> stream("lllleeee").readList());
+        assertLimit(DecodeLimits.Limit.DEPTH, () -> stream("d1:ad1:bd1:cd1:dleeeee").readDictionary());
+        assertLimit(DecodeLimits.Limit.DEPTH, () -> stream("lllleeee").skipValue());
+        assertLimit(DecodeLimits.Limit.STRING_LENGTH, () -> stream("9:abcdefghi").readString());
+        assertLimit(DecodeLimits.Limit.STRING_LENGTH, () -> stream("d9:abcdefghii1ee").readDictionary());
+        assertLimit(DecodeLimits.Limit.CONTAINER_SIZE, () -> stream("li1ei2ei3ei4ei5ee").readList());
+        assertLimit(DecodeLimits.Limit.TOTAL_BYTES, () -> stream(WIDE).readList());
+        assertLimit(DecodeLimits.Limit.DEPTH, () -> {
+            try (final var reader = new BencodeReader(stream("llllee"))) {
+                for (var i = 0; i < 4; i++) {
+                    reader.beginList();
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testTotalBytesAllowsExactSize() throws Exception {
+        final var bytes = ("d1:a10:" + "x".repeat(10) + "e").getBytes();
+        final var exact = DecodeLimits.UNLIMITED.withMaxTotalBytes(bytes.length);
+
+        assertEquals(Map.of("a", "x".repeat(10)), new BencodeInputStream(new ByteArrayInputStream(bytes), 4).limits(exact).readDictionary());
+        assertLimit(DecodeLimits.Limit.TOTAL_BYTES, () -> new BencodeInputStream(new ByteArrayInputStream(bytes), 4)
+                .limits(exact.withMaxTotalBytes(bytes.length - 1)).readDictionary());
+    }
+
+    @Test
+    public void testTotalBytesPerValue() throws Exception {
+        final var bytes = ("li12ee".repeat(20) + "x".repeat(100)).getBytes();
+        final var stream = new BencodeInputStream(new ByteArrayInputStream(bytes), 4)
+                .limits(DecodeLimits.UNLIMITED.withMaxTotalBytes(6));
+
+        for (var i = 0; i < 20; i++) {
+            assertEquals(List.of(12L), stream.readList());
+        }
+        assertEquals(100, stream.readAllBytes().length);
+        assertLimit(DecodeLimits.Limit.TOTAL_BYTES, () -> new BencodeInputStream(new ByteArrayInputStream("li1ei2ee".getBytes()), 4)
+                .limits(DecodeLimits.UNLIMITED.withMaxTotalBytes(6)).readList());
+    }
+
+    @Test
+    public void testIntegers() throws Exception {
+        final var huge = "i" + "9".repeat(25) + "e";
+
+        assertLimit(DecodeLimits.Limit.INTEGER_DIGITS, () -> stream(huge).numberMode(NumberMode.BIG_INTEGER).readNumber());
+        assertLimit(DecodeLimits.Limit.INTEGER_DIGITS, () -> new BencodeCursor(huge.getBytes()).limits(SMALL).readNumber());
+        assertLimit(DecodeLimits.Limit.INTEGER_DIGITS, () -> stream("i-1234e").limits(SMALL.withMaxIntegerDigits(3)).readLong());
+        assertEquals(-123L, new BencodeCursor("i-123e".getBytes()).limits(SMALL.withMaxIntegerDigits(3)).readLong());
+
+        // A top-level integer is charged to the byte budget like any other value.
+        final var budget = DecodeLimits.UNLIMITED.withMaxTotalBytes(16);
+        assertLimit(DecodeLimits.Limit.TOTAL_BYTES, () -> new BencodeInputStream(new ByteArrayInputStream(huge.getBytes()), 4)
+                .numberMode(NumberMode.BIG_INTEGER).limits(budget).readNumber());
+        assertLimit(DecodeLimits.Limit.TOTAL_BYTES, () -> new BencodeInputStream(new ByteArrayInputStream(("20:" + "x".repeat(20)).getBytes()), 4)
+                .limits(budget).readValue());
+        final var stream = new BencodeInputStream(new ByteArrayInputStream("i1234567890ei1234567890e5:hello".getBytes()), 4).limits(budget);
+        assertEquals(1234567890L, stream.readLong());
+        assertEquals(1234567890L, stream.readNumber());
+        assertEquals("hello", stream.readString());
+    }
+
+    @Test
+    public void testCursor() throws Exception {
+        final var cursor = new BencodeCursor("li1ei2ei3ei4ei5ee".getBytes());
+        assertEquals(5, ((List<?>) cursor.readList()).size());
+
+        assertLimit(DecodeLimits.Limit.CONTAINER_SIZE, () -> new BencodeCursor("li1ei2ei3ei4ei5ee".getBytes()).limits(SMALL).readList());
+        assertLimit(DecodeLimits.Limit.DEPTH, () -> new BencodeCursor("llllieeeee".getBytes()).limits(SMALL).readValue());
+        assertLimit(DecodeLimits.Limit.DEPTH, () -> new BencodeCursor("llllieeeee".getBytes()).limits(SMALL).skipValue());
+        assertLimit(DecodeLimits.Limit.STRING_LENGTH, () -> new BencodeCursor("9:abcdefghi".getBytes()).limits(SMALL).readBytes());
+        assertLimit(DecodeLimits.Limit.TOTAL_BYTES, () -> new BencodeCursor(new byte[65]).limits(SMALL));
+    }
+
+    @Test
+    public void testDepthRestoredAfterFailure() throws Exception {
+        final var cursor = new BencodeCursor("llllllleee".getBytes()).limits(SMALL);
+        assertLimit(DecodeLimits.Limit.DEPTH, cursor::readValue);
+        assertEquals(List.of(List.of(List.of())), cursor.readValue());
+
+        final var stream = stream("llll" + "d1:klll" + "llleee");
+        assertLimit(DecodeLimits.Limit.DEPTH, stream::readList);
+        assertLimit(DecodeLimits.Limit.DEPTH, () -> stream.readDictionary("k"));
+        assertEquals(List.of(List.of(List.of())), stream.readList());
+    }
+
+    @Test
+    public void testParser() throws Exception {
+        assertEquals(List.of(1L, 2L), parse("li1ei2ee"));
+        assertLimit(DecodeLimits.Limit.DEPTH, () -> parse("lllle"));
+        assertLimit(DecodeLimits.Limit.CONTAINER_SIZE, () -> parse("d1:ai1e1:bi1e1:ci1e1:di1e1:ei1ee"));
+        assertLimit(DecodeLimits.Limit.TOTAL_BYTES, () -> parse(WIDE));
+
+        final var parser = new BencodeParser().limits(DecodeLimits.UNLIMITED.withMaxTotalBytes(8));
+        for (var i = 0; i < 10; i++) {
+            assertEquals(List.of(1L), parser.feed(ByteBuffer.wrap("li1ee".getBytes())));
+        }
+    }
+
+    @Test
+    public void testFacade() {
+        BENCODE.limits(SMALL);
+
+        assertLimit(DecodeLimits.Limit.DEPTH, () -> BENCODE.decodeList("lllleeee".getBytes()));
+        assertLimit(DecodeLimits.Limit.CONTAINER_SIZE, () -> BENCODE.decodeDictionary("d1:ai1e1:bi1e1:ci1e1:di1e1:ei1ee".getBytes()));
+        assertInstanceOf(BencodeLimitException.class, BENCODE.decodeAll(List.of("lllleeee".getBytes())).get(0).error());
+        assertLimit(DecodeLimits.Limit.STRING_LENGTH, () -> new BencodeDecoder().limits(SMALL).decode(new ByteArrayInputStream("9:abcdefghi".getBytes())));
+
+        BENCODE.limits(DecodeLimits.UNLIMITED);
+        assertEquals(List.of(List.of(List.of(List.of()))), BENCODE.decodeList("lllleeee".getBytes()));
+        assertThrows(NullPointerException.class, () -> BENCODE.limits(null));
+    }
+
+    @Test
+    public void testValidation() {
+        assertThrows(IllegalArgumentException.class, () -> new DecodeLimits(0, 1, 1, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> DecodeLimits.DEFAULT.withMaxStringLength(-1));
+        assertThrows(IllegalArgumentException.class, () -> DecodeLimits.DEFAULT.withMaxTotalBytes(0));
+        assertThrows(IllegalArgumentException.class, () -> DecodeLimits.DEFAULT.withMaxIntegerDigits(0));
+        assertEquals(7, DecodeLimits.DEFAULT.withMaxDepth(7).maxDepth());
+        assertEquals("Maximum depth of 3 exceeded: 4", new BencodeLimitException(DecodeLimits.Limit.DEPTH, 4, 3).getMessage());
+    }
+
+}
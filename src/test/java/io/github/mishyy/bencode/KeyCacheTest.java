@@ -0,0 +1,139 @@
+package io.github.mishyy.bencode;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public final class KeyCacheTest {
+
+    private static final String DICTIONARY = "d8:intervali1800e5:peers6:abcdef1:t2:aa1:y1:re";
+
+    private KeyCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new KeyCache();
+    }
+
+    @Test
+    public void testSeededKeysHit() {
+        final var bytes = "xpeersx".getBytes();
+
+        final var first = cache.intern(bytes, 1, 5);
+        final var second = cache.intern("peers".getBytes(), 0, 5);
+
+        assertEquals("peers", first);
+        assertSame(first, second);
+        assertEquals(2, cache.hits());
+        assertEquals(0, cache.misses());
+    }
+
+    @Test
+    public void testLearnsNewKeys() {
+        final var first = cache.intern("x-custom".getBytes(), 0, 8);
+        final var second = cache.intern("x-custom".getBytes(), 0, 8);
+
+        assertEquals("x-custom", first);
+        assertSame(first, second);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+
+        cache.resetStatistics();
+        assertEquals(0, cache.hits());
+        assertEquals(0, cache.misses());
+    }
+
+    @Test
+    public void testLongKeysBypass() {
+        final var small = new KeyCache(16, 4, List.of());
+        final var bytes = "abcdefgh".getBytes();
+
+        assertEquals("abcdefgh", small.intern(bytes, 0, bytes.length));
+        assertNotSame(small.intern(bytes, 0, bytes.length), small.intern(bytes, 0, bytes.length));
+        assertEquals(0, small.hits());
+    }
+
+    @Test
+    public void testBoundedCapacity() {
+        final var small = new KeyCache(1, 64, List.of("pinned"));
+        for (var i = 0; i < 100; i++) {
+            final var key = ("key" + i).getBytes();
+            assertEquals("key" + i, small.intern(key, 0, key.length));
+        }
+
+        // The seed survives collisions with learned keys.
+        small.resetStatistics();
+        small.intern("pinned".getBytes(), 0, 6);
+        assertEquals(1, small.hits());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new KeyCache(0, 8, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new KeyCache(8, -1, List.of()));
+        assertThrows(NullPointerException.class, () -> new KeyCache(8, 8, null));
+        assertThrows(IndexOutOfBoundsException.class, () -> cache.intern(new byte[2], 1, 2));
+    }
+
+    @Test
+    public void testCursor() throws Exception {
+        final Map<String, Object> expected = Map.of("interval", 1800L, "peers", "abcdef", "t", "aa", "y", "r");
+
+        assertEquals(expected, new BencodeCursor(DICTIONARY.getBytes()).keyCache(cache).readDictionary());
+        assertEquals(expected, new BencodeCursor(ByteBuffer.allocateDirect(DICTIONARY.length()).put(DICTIONARY.getBytes()).flip())
+                .keyCache(cache)
+                .readDictionary());
+        assertEquals(8, cache.hits());
+        assertEquals(0, cache.misses());
+    }
+
+    @Test
+    public void testStream() throws Exception {
+        try (final var in = new BencodeInputStream(new ByteArrayInputStream(DICTIONARY.getBytes())).keyCache(cache)) {
+            final Map<String, Object> map = in.readDictionary();
+            assertEquals(Map.of("interval", 1800L, "peers", "abcdef", "t", "aa", "y", "r"), map);
+        }
+        assertEquals(4, cache.hits());
+    }
+
+    @Test
+    public void testParser() throws Exception {
+        final var parser = new BencodeParser().keyCache(cache);
+
+        assertEquals(Map.of("interval", 1800L, "peers", "abcdef", "t", "aa", "y", "r"),
+                parser.feed(ByteBuffer.wrap(DICTIONARY.getBytes())));
+        assertEquals(4, cache.hits());
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        final var tasks = new ArrayList<Callable<Map<?, ?>>>();
+        for (var i = 0; i < 8; i++) {
+            final var dictionary = "d6:learn" + i + "i1e6:shared1:xe";
+            tasks.add(() -> {
+                Map<?, ?> last = null;
+                for (var j = 0; j < 1000; j++) {
+                    last = new BencodeCursor(dictionary.getBytes()).keyCache(cache).readDictionary();
+                }
+                return last;
+            });
+        }
+
+        try (final var executor = Executors.newFixedThreadPool(4)) {
+            for (final var future : executor.invokeAll(tasks)) {
+                assertEquals(2, future.get().size());
+            }
+        }
+        assertEquals(16000, cache.hits() + cache.misses());
+    }
+
+}